@@ -0,0 +1,144 @@
+package io.dazraf.vertx.maven;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import rx.Observable;
+import rx.Scheduler;
+import rx.Subscriber;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects a stream of file events into bursts. A burst is emitted as soon as no event has arrived for a short window,
+ * or once its first event has waited for the maximum latency, whichever is sooner. Nothing is scheduled while no
+ * events are arriving.
+ *
+ * The window adapts to the gaps between recent events: twice their moving average, within bounds. A save from an
+ * editor is acted upon almost at once, while a slower trickle of events (e.g. a {@code git checkout}, or a build tool
+ * writing files) widens the window, so that it is still collected into a single burst. A burst that follows closely
+ * on the one before counts towards the average too, so a window that proves too short grows.
+ *
+ * @param <T> the type of the events
+ */
+class AdaptiveDebounce<T> implements Observable.Operator<List<T>, T> {
+  private static final Logger logger = LoggerFactory.getLogger(AdaptiveDebounce.class);
+  private static final long MIN_WINDOW_MILLIS = 20;
+  private static final long INITIAL_WINDOW_MILLIS = 100;
+  private static final double SMOOTHING = 0.2;
+  private final long maxWindowMillis;
+  private final long maxLatencyMillis;
+  private final Scheduler scheduler;
+  private double averageGapMillis = INITIAL_WINDOW_MILLIS / 2.0;
+  private volatile long windowMillis = INITIAL_WINDOW_MILLIS;
+  private volatile long lastDelayMillis;
+
+  /**
+   * @param maxWindowMillis the longest that the window can grow to
+   * @param maxLatencyMillis the longest that the first event of a burst waits before the burst is emitted
+   * @param scheduler the scheduler of the timers, and of the emission of each burst
+   */
+  AdaptiveDebounce(long maxWindowMillis, long maxLatencyMillis, Scheduler scheduler) {
+    this.maxWindowMillis = maxWindowMillis;
+    this.maxLatencyMillis = maxLatencyMillis;
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * @return the current quiet window, in milliseconds
+   */
+  long getWindowMillis() {
+    return windowMillis;
+  }
+
+  /**
+   * @return how long the first event of the last burst waited before the burst was emitted, in milliseconds
+   */
+  long getLastDelayMillis() {
+    return lastDelayMillis;
+  }
+
+  @Override
+  public Subscriber<? super T> call(Subscriber<? super List<T>> child) {
+    Scheduler.Worker worker = scheduler.createWorker();
+    child.add(worker);
+    return new Subscriber<T>(child) {
+      private List<T> burst = new ArrayList<>();
+      private long firstEventTime;
+      private long lastEventTime = Long.MIN_VALUE;
+      private boolean scheduled;
+
+      @Override
+      public void onNext(T event) {
+        long window;
+        synchronized (this) {
+          long now = scheduler.now();
+          if (burst.isEmpty()) {
+            firstEventTime = now;
+          }
+          if (lastEventTime != Long.MIN_VALUE && now - lastEventTime < maxWindowMillis) {
+            adapt(now - lastEventTime);
+          }
+          lastEventTime = now;
+          burst.add(event);
+          if (scheduled) {
+            return; // the pending timer will find that the burst has been extended
+          }
+          scheduled = true;
+          window = windowMillis;
+        }
+        worker.schedule(this::flush, window, TimeUnit.MILLISECONDS);
+      }
+
+      @Override
+      public void onCompleted() {
+        worker.schedule(() -> {
+          emit();
+          child.onCompleted();
+        });
+      }
+
+      @Override
+      public void onError(Throwable e) {
+        child.onError(e);
+      }
+
+      private void flush() {
+        long remaining;
+        synchronized (this) {
+          long now = scheduler.now();
+          long due = Math.min(lastEventTime + windowMillis, firstEventTime + maxLatencyMillis);
+          remaining = due - now;
+          if (remaining <= 0) {
+            scheduled = false;
+          }
+        }
+        if (remaining > 0) {
+          worker.schedule(this::flush, remaining, TimeUnit.MILLISECONDS);
+        } else {
+          emit();
+        }
+      }
+
+      private void emit() {
+        List<T> emitted;
+        synchronized (this) {
+          if (burst.isEmpty()) {
+            return;
+          }
+          emitted = burst;
+          burst = new ArrayList<>();
+          lastDelayMillis = scheduler.now() - firstEventTime;
+        }
+        logger.debug("{} event(s) after {}ms", emitted.size(), lastDelayMillis);
+        child.onNext(emitted);
+      }
+    };
+  }
+
+  private synchronized void adapt(long gapMillis) {
+    averageGapMillis += SMOOTHING * (gapMillis - averageGapMillis);
+    windowMillis = Math.max(MIN_WINDOW_MILLIS, Math.min(maxWindowMillis, Math.round(2 * averageGapMillis)));
+  }
+}
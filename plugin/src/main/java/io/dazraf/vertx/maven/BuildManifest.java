@@ -0,0 +1,276 @@
+package io.dazraf.vertx.maven;
+
+import org.apache.maven.project.MavenProject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * The state of the project as of the last successful compile, persisted under the build directory so that a new
+ * session can skip its initial build when nothing has changed since the last one.
+ *
+ * The manifest records the size, modification time and content digest of each compilable file, and the size and
+ * modification time of each compiled output file. At startup the compilable paths are walked in parallel, and only the
+ * files whose size or modification time have changed are digested again. The outputs must be exactly as they were
+ * left, otherwise (e.g. after {@code mvn clean}, or a build outside of the plugin) the manifest can't be trusted.
+ */
+class BuildManifest {
+  private static final Logger logger = LoggerFactory.getLogger(BuildManifest.class);
+  private static final String MANIFEST_FILE = "vertx-hot/manifest";
+  private static final String HEADER = "vertx-hot manifest 1";
+  private static final String SOURCES = "[sources]";
+  private static final String OUTPUTS = "[outputs]";
+  private static final String SEPARATOR = "\t";
+  private final Map<Path, FileState> sources;
+  private final Map<Path, FileState> outputs;
+
+  private BuildManifest(Map<Path, FileState> sources, Map<Path, FileState> outputs) {
+    this.sources = sources;
+    this.outputs = outputs;
+  }
+
+  /**
+   * @param project the maven project
+   * @return the location of the manifest, under the build directory of the project
+   */
+  static Path file(MavenProject project) {
+    String directory = project.getBuild().getDirectory();
+    Path buildDirectory = directory != null ? Paths.get(directory) : Paths.get(project.getBuild().getOutputDirectory()).getParent();
+    return buildDirectory.resolve(MANIFEST_FILE);
+  }
+
+  /**
+   * Create a manifest of the current state of the project
+   *
+   * @param sourceDigests the digests of the compilable files, as of the last successful compile
+   * @param outputDirectories the directories of compiled output
+   * @return the manifest
+   * @throws IOException if the files can't be read
+   */
+  static BuildManifest create(Map<Path, String> sourceDigests, Collection<Path> outputDirectories) throws IOException {
+    Map<Path, FileState> sources = new ConcurrentHashMap<>();
+    try {
+      sourceDigests.entrySet().parallelStream()
+        .filter(entry -> Files.isRegularFile(entry.getKey()))
+        .forEach(entry -> sources.put(entry.getKey(), stateOf(entry.getKey(), entry.getValue())));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    return new BuildManifest(sources, scan(outputDirectories));
+  }
+
+  /**
+   * Load the manifest of a previous session
+   *
+   * @param file the manifest file
+   * @return the manifest, or empty if there isn't one or it can't be read
+   */
+  static Optional<BuildManifest> load(Path file) {
+    if (!Files.exists(file)) {
+      return Optional.empty();
+    }
+    try {
+      List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+      if (lines.isEmpty() || !HEADER.equals(lines.get(0))) {
+        return Optional.empty();
+      }
+      Map<Path, FileState> sources = new HashMap<>();
+      Map<Path, FileState> outputs = new HashMap<>();
+      Map<Path, FileState> section = null;
+      for (String line : lines.subList(1, lines.size())) {
+        if (SOURCES.equals(line)) {
+          section = sources;
+        } else if (OUTPUTS.equals(line)) {
+          section = outputs;
+        } else if (section != null && !line.isEmpty()) {
+          String[] fields = line.split(SEPARATOR, 4);
+          section.put(Paths.get(fields[3]), new FileState(Long.parseLong(fields[0]), Long.parseLong(fields[1]), fields[2]));
+        }
+      }
+      return Optional.of(new BuildManifest(sources, outputs));
+    } catch (IOException | RuntimeException e) {
+      logger.warn("unable to read the build manifest {}", file, e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Save the manifest
+   *
+   * @param file the manifest file
+   */
+  void save(Path file) {
+    List<String> lines = new ArrayList<>();
+    lines.add(HEADER);
+    lines.add(SOURCES);
+    sources.forEach((path, state) -> lines.add(state.toLine(path)));
+    lines.add(OUTPUTS);
+    outputs.forEach((path, state) -> lines.add(state.toLine(path)));
+    try {
+      Files.createDirectories(file.getParent());
+      Files.write(file, lines, StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      logger.warn("unable to write the build manifest {}", file, e);
+    }
+  }
+
+  /**
+   * @param outputDirectories the directories of compiled output
+   * @return true if the output directories hold exactly the files that they did when the manifest was created
+   */
+  boolean isOutputCurrent(Collection<Path> outputDirectories) {
+    try {
+      return scan(outputDirectories).equals(outputs);
+    } catch (IOException e) {
+      logger.debug("unable to scan the output directories", e);
+      return false;
+    }
+  }
+
+  /**
+   * Compare the compilable files with the manifest
+   *
+   * @param compilePaths the compilable paths - directories are walked
+   * @return the files that have been changed, added or deleted since the manifest was created, along with the digests
+   * of those that haven't
+   * @throws IOException if the paths can't be walked
+   */
+  Diff diff(Collection<Path> compilePaths) throws IOException {
+    Map<Path, String> unchanged = new ConcurrentHashMap<>();
+    Set<Path> changed = ConcurrentHashMap.newKeySet();
+    try {
+      files(compilePaths).forEach(file -> {
+        FileState recorded = sources.get(file);
+        FileState current = stateOf(file, null);
+        String digest = recorded != null && recorded.size == current.size && recorded.modified == current.modified
+          ? recorded.digest
+          : ContentDigests.digestFile(file);
+        if (recorded != null && recorded.digest.equals(digest)) {
+          unchanged.put(file, digest);
+        } else {
+          changed.add(file);
+        }
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    List<Path> roots = compilePaths.stream().map(path -> path.toAbsolutePath().normalize()).collect(toList());
+    sources.keySet().stream()
+      .filter(path -> !unchanged.containsKey(path) && !changed.contains(path))
+      .filter(path -> roots.stream().anyMatch(path::startsWith))
+      .forEach(changed::add); // deleted
+    return new Diff(new ArrayList<>(changed), unchanged);
+  }
+
+  private static Map<Path, FileState> scan(Collection<Path> directories) throws IOException {
+    Map<Path, FileState> states = new ConcurrentHashMap<>();
+    try {
+      files(directories).forEach(file -> states.put(file, stateOf(file, "")));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    return states;
+  }
+
+  // the regular files at, or beneath, the paths, walked in parallel
+  private static Stream<Path> files(Collection<Path> paths) {
+    return paths.parallelStream()
+      .map(path -> path.toAbsolutePath().normalize())
+      .flatMap(path -> {
+        if (!Files.isDirectory(path)) {
+          return Files.isRegularFile(path) ? Stream.of(path) : Stream.empty();
+        }
+        try (Stream<Path> files = Files.find(path, Integer.MAX_VALUE, (file, attributes) -> attributes.isRegularFile())) {
+          return files.collect(toList()).stream();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      })
+      .parallel();
+  }
+
+  private static FileState stateOf(Path file, String digest) {
+    try {
+      BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+      return new FileState(attributes.size(), attributes.lastModifiedTime().toMillis(), digest);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * The difference between the compilable files and a manifest
+   */
+  static class Diff {
+    private final List<Path> changed;
+    private final Map<Path, String> unchanged;
+
+    Diff(List<Path> changed, Map<Path, String> unchanged) {
+      this.changed = Collections.unmodifiableList(changed);
+      this.unchanged = Collections.unmodifiableMap(unchanged);
+    }
+
+    /**
+     * @return the files that have been changed, added or deleted
+     */
+    List<Path> getChanged() {
+      return changed;
+    }
+
+    /**
+     * @return the digests of the files that haven't changed
+     */
+    Map<Path, String> getUnchanged() {
+      return unchanged;
+    }
+  }
+
+  private static class FileState {
+    private final long size;
+    private final long modified;
+    private final String digest;
+
+    FileState(long size, long modified, String digest) {
+      this.size = size;
+      this.modified = modified;
+      this.digest = digest;
+    }
+
+    String toLine(Path path) {
+      return size + SEPARATOR + modified + SEPARATOR + digest + SEPARATOR + path;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof FileState)) {
+        return false;
+      }
+      FileState other = (FileState) o;
+      return size == other.size && modified == other.modified;
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(size) * 31 + Long.hashCode(modified);
+    }
+  }
+}
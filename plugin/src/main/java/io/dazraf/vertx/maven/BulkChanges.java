@@ -0,0 +1,119 @@
+package io.dazraf.vertx.maven;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import rx.Scheduler;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Detects a storm of changes - a {@code git checkout} or {@code rebase}, or a mass edit - which would otherwise be
+ * acted upon burst by burst, with a compile and a deploy each time. A storm starts with a burst of more than a number
+ * of files, or with more than a number of events within a second. Its bursts are then held back until there have been
+ * no changes for the quiet period, and handed over together, to be acted upon once.
+ */
+class BulkChanges {
+  private static final Logger logger = LoggerFactory.getLogger(BulkChanges.class);
+  private static final long RATE_PERIOD_MILLIS = 1000;
+  private final int maxFiles;
+  private final int maxEventsPerSecond;
+  private final long quietMillis;
+  private final Scheduler.Worker worker;
+  private final Consumer<Integer> onStarted;
+  private final BiConsumer<List<FileChange>, Boolean> onSettled;
+  private final Deque<long[]> recentBursts = new ArrayDeque<>();
+  private List<FileChange> held;
+  private long lastChangeTime;
+  private boolean deployDeferred;
+
+  /**
+   * @param maxFiles the most files in a burst that isn't a storm
+   * @param maxEventsPerSecond the most events within a second that aren't a storm
+   * @param quietMillis how long there must be no changes for a storm to be over
+   * @param scheduler the scheduler of the check for the end of a storm
+   * @param onStarted called with the number of files of the burst that started a storm
+   * @param onSettled called with all of the changes of a storm once it is over, and whether a deploy was deferred
+   */
+  BulkChanges(int maxFiles, int maxEventsPerSecond, long quietMillis, Scheduler scheduler,
+              Consumer<Integer> onStarted, BiConsumer<List<FileChange>, Boolean> onSettled) {
+    this.maxFiles = maxFiles;
+    this.maxEventsPerSecond = maxEventsPerSecond;
+    this.quietMillis = quietMillis;
+    this.worker = scheduler.createWorker();
+    this.onStarted = onStarted;
+    this.onSettled = onSettled;
+  }
+
+  /**
+   * @param burst a burst of changes
+   * @return true if the burst is part of a storm, and has been held back
+   */
+  boolean offer(List<FileChange> burst) {
+    int files;
+    synchronized (this) {
+      long now = worker.now();
+      lastChangeTime = now;
+      if (held != null) {
+        held.addAll(burst);
+        return true;
+      }
+      recentBursts.addLast(new long[]{now, burst.size()});
+      while (recentBursts.peekFirst()[0] < now - RATE_PERIOD_MILLIS) {
+        recentBursts.removeFirst();
+      }
+      long recentEvents = recentBursts.stream().mapToLong(recent -> recent[1]).sum();
+      Set<Path> paths = burst.stream().map(FileChange::getPath).collect(toSet());
+      if (paths.size() <= maxFiles && recentEvents <= maxEventsPerSecond) {
+        return false;
+      }
+      logger.info("Bulk change detected ({} files, {} events in the last second) - waiting for it to settle",
+        paths.size(), recentEvents);
+      held = new ArrayList<>(burst);
+      recentBursts.clear();
+      files = paths.size();
+    }
+    onStarted.accept(files);
+    worker.schedule(this::checkSettled, quietMillis, TimeUnit.MILLISECONDS);
+    return true;
+  }
+
+  /**
+   * Defer a deploy (e.g. after a compile that started before the storm) until the storm is over
+   *
+   * @return true if a storm is in progress, and the deploy has been deferred
+   */
+  synchronized boolean deferDeploy() {
+    if (held != null) {
+      deployDeferred = true;
+    }
+    return held != null;
+  }
+
+  private void checkSettled() {
+    List<FileChange> changes;
+    boolean deployWasDeferred;
+    synchronized (this) {
+      long remaining = lastChangeTime + quietMillis - worker.now();
+      if (remaining > 0) {
+        worker.schedule(this::checkSettled, remaining, TimeUnit.MILLISECONDS);
+        return;
+      }
+      changes = held;
+      deployWasDeferred = deployDeferred;
+      held = null;
+      deployDeferred = false;
+    }
+    logger.info("Bulk change has settled after {} event(s)", changes.size());
+    onSettled.accept(changes, deployWasDeferred);
+  }
+}
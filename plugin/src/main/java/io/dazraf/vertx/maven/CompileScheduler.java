@@ -0,0 +1,174 @@
+package io.dazraf.vertx.maven;
+
+import io.dazraf.vertx.maven.plugin.mojo.ExtraPath.VertxHotAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs compiles one at a time on a dedicated thread, as cancellable jobs.
+ * When a new batch of changes arrives:
+ * <ul>
+ *   <li>if a compile is already queued, the batch is merged into it (the batch is <i>superseded</i>)</li>
+ *   <li>if a compile is running, it is interrupted (it is <i>cancelled</i>) and a new compile is queued</li>
+ * </ul>
+ * Each compile is over the union of all the changes that haven't yet been compiled, including those of any
+ * cancelled compile. Once a compile has completed, the follow on action (i.e. the deploy) is not cancellable.
+ *
+ * A batch can also carry the strongest of its actions other than the compile (i.e. a redeploy or a browser refresh),
+ * which is needed if the compile turns out to be unnecessary. These are merged in the same way as the changes.
+ *
+ * Other actions that mustn't overlap with a compile's follow on action (i.e. a deploy without a compile) can be run
+ * on the same thread, after any compile that is already queued.
+ */
+class CompileScheduler implements Closeable {
+  private static final Logger logger = LoggerFactory.getLogger(CompileScheduler.class);
+
+  @FunctionalInterface
+  interface CompileAction {
+    /**
+     * @param changedPaths the union of the changes since the last completed compile
+     * @param otherAction the strongest action other than the compile that those changes call for
+     * @return true if the compile succeeded (or was skipped, but a redeploy is still due), false if it failed, was
+     * cancelled, or was skipped
+     */
+    boolean compile(List<Path> changedPaths, VertxHotAction otherAction);
+  }
+
+  private final CompileAction compileAction;
+  private final Runnable onCompiled;
+  private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "vertx-hot-compiler");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final Set<Path> pendingPaths = new LinkedHashSet<>();
+  private VertxHotAction pendingAction = VertxHotAction.Nothing;
+  private Job queued;
+  private Job running;
+  private int cancelled;
+  private int superseded;
+
+  /**
+   * @param compileAction the compile to run for a batch of changes
+   * @param onCompiled run after each successful compile that wasn't cancelled
+   */
+  CompileScheduler(CompileAction compileAction, Runnable onCompiled) {
+    this.compileAction = compileAction;
+    this.onCompiled = onCompiled;
+  }
+
+  /**
+   * Schedule a compile of a batch of changed paths, cancelling or merging into any outstanding compile
+   *
+   * @param changedPaths the changed paths - an empty list will cause a full build if there hasn't been a build yet
+   */
+  synchronized void schedule(Collection<Path> changedPaths) {
+    schedule(changedPaths, VertxHotAction.Nothing);
+  }
+
+  /**
+   * Schedule a compile of a batch of changed paths, cancelling or merging into any outstanding compile
+   *
+   * @param changedPaths the changed paths - an empty list will cause a full build if there hasn't been a build yet
+   * @param otherAction the strongest action other than the compile that the batch calls for
+   */
+  synchronized void schedule(Collection<Path> changedPaths, VertxHotAction otherAction) {
+    pendingPaths.addAll(changedPaths);
+    if (otherAction.compareTo(pendingAction) > 0) {
+      pendingAction = otherAction;
+    }
+    if (queued != null) {
+      superseded++;
+      logger.info("Merged changes into the queued compile ({} superseded so far)", superseded);
+      return;
+    }
+    if (running != null && running.cancellable) {
+      cancelled++;
+      running.cancelled = true;
+      running.future.cancel(true);
+      logger.info("Cancelling the running compile ({} cancelled so far)", cancelled);
+    }
+    Job job = new Job();
+    queued = job;
+    job.future = executor.submit(() -> run(job));
+  }
+
+  /**
+   * Run an action on the compile thread, once any queued compile and its follow on action have finished. The action
+   * doesn't cancel, and isn't cancelled by, a compile.
+   *
+   * @param action the action
+   */
+  void submit(Runnable action) {
+    executor.execute(action);
+  }
+
+  /**
+   * @return the number of running compiles that were cancelled by newer changes
+   */
+  synchronized int getCancelledCount() {
+    return cancelled;
+  }
+
+  /**
+   * @return the number of changed paths waiting for a compile
+   */
+  synchronized int getPendingCount() {
+    return pendingPaths.size();
+  }
+
+  /**
+   * @return the number of batches of changes that were merged into an already queued compile
+   */
+  synchronized int getSupersededCount() {
+    return superseded;
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  private void run(Job job) {
+    List<Path> changedPaths;
+    VertxHotAction otherAction;
+    synchronized (this) {
+      queued = null;
+      running = job;
+      changedPaths = new ArrayList<>(pendingPaths);
+      otherAction = pendingAction;
+    }
+    boolean compiled = compileAction.compile(changedPaths, otherAction);
+    synchronized (this) {
+      running = null;
+      job.cancellable = false;
+      // clear any interrupt that raced with the end of the compile, so that it can't disturb the deploy
+      Thread.interrupted();
+      if (job.cancelled) {
+        return;
+      }
+      pendingPaths.removeAll(changedPaths);
+      pendingAction = VertxHotAction.Nothing;
+    }
+    if (compiled) {
+      onCompiled.run();
+    }
+  }
+
+  private static class Job {
+    private Future<?> future;
+    private boolean cancellable = true;
+    private boolean cancelled;
+  }
+}
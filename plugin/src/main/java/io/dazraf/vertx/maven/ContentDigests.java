@@ -0,0 +1,103 @@
+package io.dazraf.vertx.maven;
+
+import io.dazraf.vertx.maven.digest.Sha1;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The content digests of the compilable files (sources, resources and poms) as they were at the last successful
+ * compile. Used to drop batches of file events where nothing was actually changed, e.g. an editor re-saving identical
+ * bytes, or a {@code git checkout} that touches modification times.
+ *
+ * Digests are taken before a compile starts, and only committed once it has succeeded, so a file that is changed
+ * during a compile is always compiled again.
+ */
+class ContentDigests {
+  private static final Logger logger = LoggerFactory.getLogger(ContentDigests.class);
+  private static final String ABSENT = "";
+  private final Map<Path, String> committed = new HashMap<>();
+
+  /**
+   * Digest the current content of a set of files
+   *
+   * @param paths the files - directories are walked
+   * @return the digest of each file, or empty if any path can't be digested (e.g. a directory was deleted)
+   */
+  Optional<Map<Path, String>> digest(Collection<Path> paths) {
+    Map<Path, String> digests = new HashMap<>();
+    for (Path path : paths) {
+      Path normalized = path.toAbsolutePath().normalize();
+      if (Files.isDirectory(normalized)) {
+        try (Stream<Path> files = Files.walk(normalized)) {
+          files.filter(Files::isRegularFile).forEach(file -> digests.put(file, digestFile(file)));
+        } catch (IOException | RuntimeException e) {
+          logger.warn("unable to digest {}", normalized, e);
+          return Optional.empty();
+        }
+      } else {
+        digests.put(normalized, Files.exists(normalized) ? digestFile(normalized) : ABSENT);
+      }
+    }
+    return digests.containsValue(null) ? Optional.empty() : Optional.of(digests);
+  }
+
+  /**
+   * @param digests the current digests of the files in a batch of changes
+   * @return true if every file has the same content as at the last successful compile
+   */
+  synchronized boolean isUnchanged(Map<Path, String> digests) {
+    return digests.entrySet().stream().allMatch(entry -> ABSENT.equals(entry.getValue())
+      ? !committedPaths(entry.getKey()).findAny().isPresent() // nothing that we compiled has been deleted
+      : entry.getValue().equals(committed.get(entry.getKey())));
+  }
+
+  /**
+   * Record the digests of the files of a successful compile
+   *
+   * @param digests the digests, as taken before the compile
+   */
+  synchronized void commit(Map<Path, String> digests) {
+    digests.forEach((path, digest) -> {
+      if (ABSENT.equals(digest)) {
+        committedPaths(path).collect(Collectors.toList()).forEach(committed::remove);
+      } else {
+        committed.put(path, digest);
+      }
+    });
+  }
+
+  /**
+   * @return the digests of every file as of the last successful compile
+   */
+  synchronized Map<Path, String> committed() {
+    return new HashMap<>(committed);
+  }
+
+  // the committed files at, or beneath, a path
+  private Stream<Path> committedPaths(Path path) {
+    return committed.keySet().stream().filter(committedPath -> committedPath.startsWith(path));
+  }
+
+  /**
+   * @param file a file
+   * @return the digest of the content of the file, or null if it can't be read
+   */
+  static String digestFile(Path file) {
+    try {
+      return Sha1.ofFile(file);
+    } catch (IOException e) {
+      logger.debug("unable to digest {}", file, e);
+      return null;
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package io.dazraf.vertx.maven;
+
+import io.dazraf.vertx.maven.plugin.mojo.ExtraPath.VertxHotAction;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * A changed file, and the action that a change to it calls for. The actions are ordered by strength: a recompile is
+ * followed by a redeploy, and a redeploy by a browser refresh, so a burst of changes only needs its strongest action -
+ * unless the recompile is skipped, when the strongest of the other actions is still needed.
+ */
+class FileChange {
+  private final Path path;
+  private final VertxHotAction action;
+
+  FileChange(Path path, VertxHotAction action) {
+    this.path = path;
+    this.action = action;
+  }
+
+  Path getPath() {
+    return path;
+  }
+
+  VertxHotAction getAction() {
+    return action;
+  }
+
+  /**
+   * @param changes a burst of changes
+   * @return the strongest action that any of the changes calls for
+   */
+  static VertxHotAction strongestAction(Collection<FileChange> changes) {
+    return changes.stream().map(FileChange::getAction).max(Comparator.naturalOrder()).orElse(VertxHotAction.Nothing);
+  }
+
+  /**
+   * @param changes a burst of changes
+   * @param action an action
+   * @return the strongest action weaker than the given one that any of the changes calls for
+   */
+  static VertxHotAction strongestActionBelow(Collection<FileChange> changes, VertxHotAction action) {
+    return strongestAction(changes.stream().filter(change -> change.action.compareTo(action) < 0).collect(toList()));
+  }
+
+  /**
+   * @param changes a burst of changes
+   * @param action an action
+   * @return the distinct paths of the changes that call for the action
+   */
+  static List<Path> pathsFor(Collection<FileChange> changes, VertxHotAction action) {
+    return changes.stream().filter(change -> change.action == action).map(FileChange::getPath).distinct().collect(toList());
+  }
+
+  @Override
+  public String toString() {
+    return action + " " + path;
+  }
+}
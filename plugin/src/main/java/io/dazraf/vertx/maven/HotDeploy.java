@@ -1,51 +1,98 @@
 package io.dazraf.vertx.maven;
 
+import io.dazraf.vertx.maven.compiler.CompileCancelledException;
+import io.dazraf.vertx.maven.compiler.CompileDiagnostic;
 import io.dazraf.vertx.maven.compiler.CompileResult;
 import io.dazraf.vertx.maven.compiler.Compiler;
 import io.dazraf.vertx.maven.compiler.CompilerException;
+import io.dazraf.vertx.maven.compiler.OutputDigests;
 import io.dazraf.vertx.maven.deployer.VerticleDeployer;
+import io.dazraf.vertx.maven.filewatcher.FileWatcher;
 import io.dazraf.vertx.maven.filewatcher.PathWatcher;
+import io.dazraf.vertx.maven.filewatcher.PollingPathWatcher;
+import io.dazraf.vertx.maven.filewatcher.WatchMode;
+import io.dazraf.vertx.maven.metrics.Metrics;
+import io.dazraf.vertx.maven.plugin.mojo.ExtraPath.VertxHotAction;
+import io.dazraf.vertx.maven.reactor.Reactor;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import org.apache.maven.model.Resource;
 import org.apache.maven.project.MavenProject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import rx.Observable;
 import rx.Subscription;
 import rx.functions.Action1;
+import rx.schedulers.Schedulers;
 import rx.subjects.PublishSubject;
 
 import java.io.BufferedReader;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 
 public class HotDeploy {
 
   public enum DeployStatus {
     COMPILING,
+    COMPILE_DIAGNOSTIC,
     DEPLOYING,
     DEPLOYED,
     FAILED,
+    UNCHANGED,
+    BULK_CHANGE,
+    METRICS,
     STOPPED
   }
 
   private static final Logger logger = LoggerFactory.getLogger(HotDeploy.class);
+  private static final long DEBOUNCE_MAX_WINDOW_MILLIS = 500;
+  private static final long DEBOUNCE_MAX_LATENCY_MILLIS = 1000;
+  private static final long WATCH_PROBE_TIMEOUT_SECONDS = 2;
+  private static final int BULK_CHANGE_MAX_FILES = 100;
+  private static final int BULK_CHANGE_MAX_EVENTS_PER_SECOND = 300;
+  private static final long BULK_CHANGE_QUIET_MILLIS = 2000;
   private final Awaitable awaitable;
   private final HotDeployParameters parameters;
-  private final Compiler compiler = new Compiler();
+  private final Compiler compiler;
   private final VerticleDeployer verticleDeployer;
   private final PublishSubject<JsonObject> statusSubject;
   private final AtomicReference<Closeable> currentDeployment = new AtomicReference<>();
   private final PathsSupport pathsSupport;
   private final AtomicReference<CompileResult> lastCompileResult = new AtomicReference<>();
+  private final CompileScheduler compileScheduler;
+  private final Metrics metrics = new Metrics();
+  private final BulkChanges bulkChanges;
+  private final PublishSubject<Observable<FileChange>> dependencyWatches = PublishSubject.create();
+  private final Set<Path> watchedDependencies = new HashSet<>();
+  private volatile Set<Path> dependencyPaths = emptySet();
+  private final ContentDigests contentDigests = new ContentDigests();
+  private final OutputDigests outputDigests;
+  private final boolean swapDeploy;
+  private final AtomicLong compileStartTime = new AtomicLong();
+  private final AtomicInteger compileErrorCount = new AtomicInteger();
+  private final FileWatcher pathWatcher;
+  private final AdaptiveDebounce<FileChange> debounce =
+    new AdaptiveDebounce<>(DEBOUNCE_MAX_WINDOW_MILLIS, DEBOUNCE_MAX_LATENCY_MILLIS, Schedulers.computation());
 
   public static void run(HotDeployParameters parameters) throws Exception {
     run(parameters, createWaitForNewLine());
@@ -65,10 +112,29 @@ public class HotDeploy {
   private HotDeploy(HotDeployParameters parameters, Awaitable awaitable) {
     this.statusSubject = PublishSubject.create();
     this.parameters = parameters;
-    this.pathsSupport = new PathsSupport(parameters);
+    Optional<Reactor> reactor = Reactor.discover(parameters.getProject());
+    this.pathsSupport = new PathsSupport(parameters, reactor);
+    this.compiler = new Compiler(parameters.isIncrementalCompile(), parameters.isParallelCompile(),
+      parameters.getMavenDaemon(), parameters.getEmbeddedMaven(), reactor, parameters.getSourceGeneratingResources());
     this.verticleDeployer = new VerticleDeployer(parameters.isLiveHttpReload(), parameters.getNotificationPort());
     subscribeToStatusUpdates(verticleDeployer.createStatusConsumer());
     this.awaitable = awaitable;
+    this.compileScheduler = new CompileScheduler(this::compile, this::onCompiled);
+    this.bulkChanges = new BulkChanges(BULK_CHANGE_MAX_FILES, BULK_CHANGE_MAX_EVENTS_PER_SECOND, BULK_CHANGE_QUIET_MILLIS,
+      Schedulers.computation(), this::onBulkChangeStarted, this::onBulkChangeSettled);
+    this.pathWatcher = createPathWatcher(parameters, metrics);
+    this.outputDigests = new OutputDigests(parameters.isIgnoreDebugInfoChanges());
+    // without the interceptor of liveHttpReload, the two versions would share the port round-robin during the swap
+    this.swapDeploy = parameters.isSwapDeploy() && parameters.isLiveHttpReload();
+    if (parameters.isSwapDeploy() && !swapDeploy) {
+      logger.warn("swapDeploy requires liveHttpReload - the verticle will be undeployed before it is redeployed");
+    }
+    compiler.errors().subscribe(this::onCompileError);
+    metrics.gauge("pipeline.debounceWindow", debounce::getWindowMillis);
+    metrics.gauge("compile.pending", compileScheduler::getPendingCount);
+    metrics.gauge("compile.cancelled", compileScheduler::getCancelledCount);
+    metrics.gauge("compile.superseded", compileScheduler::getSupersededCount);
+    verticleDeployer.serveMetrics(metrics::snapshot);
   }
 
   private void subscribeToStatusUpdates(Action1<JsonObject> observer) {
@@ -77,67 +143,93 @@ public class HotDeploy {
 
   void run() throws Exception {
     logger.info("Starting up file watchers");
+    long watchStartTime = System.nanoTime();
 
-    Subscription compilableFileSubscription = watchCompilableFileEvents()
-      .buffer(1, TimeUnit.SECONDS)
+    Subscription fileChangeSubscription = Observable.merge(watchFileChanges(), Observable.merge(dependencyWatches))
+      .lift(debounce)
       .subscribe(
-      this::onCompilableFileEvent,
+      this::onFileChanges,
       this::onError,
       this::onComplete);
 
-    Subscription redeployableFileEvent = watchRedeployableFileEvents()
-      .buffer(1, TimeUnit.SECONDS)
-      .subscribe(this::onRedeployableFileEvent, this::onError);
-
-    Subscription refreshableFileSubscription = watchRefreshableFileEvents()
-      .buffer(1, TimeUnit.SECONDS)
-      .subscribe(this::onRefreshableFileEvent, this::onError);
+    logger.info("Watching {} directories (registered in {}ms)", pathWatcher.getWatchedDirectoryCount(),
+      TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - watchStartTime));
 
-    compile();
+    compileScheduler.schedule(emptyList());
 
     awaitable.await();
 
     logger.info("shutting down ...");
     sendStatus(DeployStatus.STOPPED);
-    compilableFileSubscription.unsubscribe();
-    refreshableFileSubscription.unsubscribe();
-    redeployableFileEvent.unsubscribe();
+    fileChangeSubscription.unsubscribe();
+    compileScheduler.close();
+    compiler.close();
+    pathWatcher.close();
     verticleDeployer.close();
     logger.info("done");
   }
 
   // --- File watching functions ---
-  private Observable<Path> watchCompilableFileEvents() {
+  // each path is watched once, whatever its action, and each change is classified by the path that it's under
+  private Observable<FileChange> watchFileChanges() {
+    Set<Path> watchedPaths = new LinkedHashSet<>();
     logger.info("compilable paths");
-    return Observable.merge(
-      pathsSupport.pathsThatRequireCompile().stream()
-        .peek(p -> logger.info(p.toString()))
-        .map(this::createWatch)
-        .collect(toList()));
-  }
-
-  private Observable<Path> watchRedeployableFileEvents() {
+    pathsSupport.pathsThatRequireCompile().stream().peek(p -> logger.info(p.toString())).forEach(watchedPaths::add);
     logger.info("redeployable paths");
-    return Observable.merge(
-      pathsSupport.pathsThatRequireRedeploy().stream()
-        .peek(p -> logger.info(p.toString()))
-        .map(this::createWatch)
-        .collect(toList()));
+    pathsSupport.pathsThatRequireRedeploy().stream().peek(p -> logger.info(p.toString())).forEach(watchedPaths::add);
+    logger.info("refreshable paths");
+    pathsSupport.pathsThatRequireBrowserRefresh().stream().peek(p -> logger.info(p.toString())).forEach(watchedPaths::add);
+    return Observable.merge(watchedPaths.stream().map(this::createWatch).collect(toList()))
+      .map(path -> new FileChange(path, pathsSupport.actionFor(path)));
   }
 
+  // the native watcher, unless it receives no events for the project, then a polling watcher
+  private static FileWatcher createPathWatcher(HotDeployParameters parameters, Metrics metrics) {
+    try {
+      if (parameters.getWatchMode() == WatchMode.Polling) {
+        return new PollingPathWatcher(parameters.getPollInterval(), metrics);
+      }
+      PathWatcher pathWatcher = new PathWatcher(metrics);
+      if (parameters.getWatchMode() == WatchMode.Native) {
+        return pathWatcher;
+      }
+      Path probeDirectory = BuildManifest.file(parameters.getProject()).getParent();
+      if (pathWatcher.receivesEvents(probeDirectory, WATCH_PROBE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        return pathWatcher;
+      }
+      logger.warn("No file events were received for {} - polling for changes every {}ms instead", probeDirectory,
+        parameters.getPollInterval());
+      pathWatcher.close();
+      return new PollingPathWatcher(parameters.getPollInterval(), metrics);
+    } catch (IOException | InterruptedException e) {
+      logger.error("Error in creating the path watcher", e);
+      throw new RuntimeException(e);
+    }
+  }
 
-  private Observable<Path> watchRefreshableFileEvents() {
-    logger.info("refreshable paths");
-    return Observable.merge(
-      pathsSupport.pathsThatRequireBrowserRefresh().stream()
-        .peek(p -> logger.info(p.toString()))
-        .map(this::createWatch)
-        .collect(toList()));
+  // SNAPSHOT jars and the classes of linked projects on the class path are watched as they appear - a change to one of
+  // them only needs a redeploy, with the new class path
+  private void watchDependencies(CompileResult result) {
+    List<Path> paths = pathsSupport.dependencyPathsToWatch(result.getClassPath());
+    dependencyPaths = new HashSet<>(paths);
+    for (Path path : paths) {
+      if (!watchedDependencies.add(path)) {
+        continue;
+      }
+      try {
+        dependencyWatches.onNext(pathWatcher.watch(path)
+          .filter(changed -> dependencyPaths.contains(path)) // unless it has since left the class path
+          .map(changed -> new FileChange(changed, VertxHotAction.Redeploy)));
+        logger.info("watching dependency {}", path);
+      } catch (IOException e) {
+        logger.warn("unable to watch dependency {}", path, e);
+      }
+    }
   }
 
   private Observable<Path> createWatch(Path path) {
     try {
-      return PathWatcher.create(path);
+      return pathWatcher.watch(path, pathsSupport.watchFilterFor(path));
     } catch (Exception e) {
       logger.error("Error in creating path watcher for path: " + path, e);
       throw new RuntimeException(e);
@@ -154,63 +246,228 @@ public class HotDeploy {
     logger.error("Error during hot deploy", throwable);
   }
 
-  private void onCompilableFileEvent(List<Path> paths) {
-    if (paths == null || paths.size() > 0) {
-      if (paths != null) {
-        logger.info("file change detected:");
-        paths.stream().forEach(path -> logger.info(path.toString()));
-      }
-      compile(); // we compile for the edge case where paths == null to trigger the first build
-      printLastMessage();
+  // only the strongest action of a burst is taken: a compile is followed by a deploy, and a deploy reloads the browser
+  private void onFileChanges(List<FileChange> changes) {
+    metrics.counter("pipeline.bursts").increment();
+    metrics.histogram("pipeline.burstSize").record(changes.size());
+    metrics.histogram("pipeline.debounceDelay").record(debounce.getLastDelayMillis());
+    VertxHotAction action = FileChange.strongestAction(changes);
+    if (action == VertxHotAction.Nothing || bulkChanges.offer(changes)) {
+      return;
     }
+    recordDetectionLatency(changes);
+    logger.info("file change detected ({}):", action);
+    changes.stream().map(FileChange::getPath).distinct().forEach(path -> logger.info(path.toString()));
+    act(action, FileChange.pathsFor(changes, VertxHotAction.Recompile),
+      FileChange.strongestActionBelow(changes, VertxHotAction.Recompile));
   }
 
-  private void onRedeployableFileEvent(List<Path> paths) {
-    if (paths != null && paths.size() > 0) {
-      deploy();
-      printLastMessage();
+  private void onBulkChangeStarted(int files) {
+    metrics.counter("pipeline.bulkChanges").increment();
+    sendBulkChangeStatus(true, files);
+  }
+
+  // a bulk change is acted upon once, and if it needs a compile, with a full build
+  private void onBulkChangeSettled(List<FileChange> changes, boolean deployDeferred) {
+    VertxHotAction action = FileChange.strongestAction(changes);
+    VertxHotAction otherAction = FileChange.strongestActionBelow(changes, VertxHotAction.Recompile);
+    if (deployDeferred) {
+      action = action.compareTo(VertxHotAction.Redeploy) < 0 ? VertxHotAction.Redeploy : action;
+      otherAction = VertxHotAction.Redeploy;
     }
+    sendBulkChangeStatus(false, changes.stream().map(FileChange::getPath).distinct().count());
+    recordDetectionLatency(changes);
+    act(action, emptyList(), otherAction);
   }
 
-  private void onRefreshableFileEvent(List<Path> paths) {
-    if (paths != null && paths.size() > 0) {
-      refreshBrowser();
+  // the time from when each file was last modified until its action is taken - the watcher and the debounce
+  private void recordDetectionLatency(List<FileChange> changes) {
+    long now = System.currentTimeMillis();
+    changes.stream().map(FileChange::getPath).distinct().forEach(path -> {
+      try {
+        metrics.histogram("pipeline.detectionLatency").record(now - Files.getLastModifiedTime(path).toMillis());
+      } catch (IOException e) {
+        // deleted, so there's no modification time
+      }
+    });
+  }
+
+  // a recompile carries the strongest of the other actions, which is taken instead if the compile is skipped
+  private void act(VertxHotAction action, List<Path> compilePaths, VertxHotAction otherAction) {
+    switch (action) {
+      case Recompile:
+        compileScheduler.schedule(compilePaths, otherAction);
+        printLastMessage();
+        break;
+      case Redeploy:
+        compileScheduler.submit(this::deploy);
+        printLastMessage();
+        break;
+      case Refresh:
+        refreshBrowser();
+        break;
+      default:
+        break;
     }
   }
 
   // --- Core Functions -- //
 
-  private void compile() {
+  // called by the compile scheduler, which deploys if this returns true
+  private boolean compile(List<Path> changes, VertxHotAction otherAction) {
+    List<Path> changedPaths = changes;
+    if (changedPaths.isEmpty() && lastCompileResult.get() == null) {
+      Optional<List<Path>> changedSinceLastSession = restoreLastSession();
+      if (changedSinceLastSession.isPresent() && changedSinceLastSession.get().isEmpty()) {
+        logger.info("Nothing has changed since the last session - skipping the initial build");
+        return true;
+      }
+      changedPaths = changedSinceLastSession.orElse(changedPaths);
+    }
     long startTime = markFileDetectedAction();
+    // a full build digests everything it compiles, so that later batches can be compared against it
+    Optional<Map<Path, String>> digests = contentDigests.digest(changedPaths.isEmpty() ? pathsSupport.pathsThatRequireCompile() : changedPaths);
+    if (!changedPaths.isEmpty() && lastCompileResult.get() != null && digests.map(contentDigests::isUnchanged).orElse(false)) {
+      logger.info("No content has changed - skipping compile");
+      return skipCompile(otherAction);
+    }
     logger.info("Compiling...");
-    sendStatus(DeployStatus.COMPILING);
+    compileStartTime.set(startTime);
+    compileErrorCount.set(0);
+    sendCompilingStatus();
 
     try {
-      lastCompileResult.set(compiler.compile(project()));
+      CompileResult previous = lastCompileResult.get();
+      CompileResult result = compiler.compile(project(), changedPaths, previous);
+      lastCompileResult.set(result);
+      watchDependencies(result);
+      digests.ifPresent(contentDigests::commit);
+      saveManifest(result);
+      boolean outputChanged = outputDigests.update(outputDirectories(result));
       logger.info("Done");
-      markActionCompleted(startTime, "Compiled");
-      deploy();
+      metrics.histogram("compile.time").record(markActionCompleted(startTime, "Compiled"));
+      if (!outputChanged && previous != null && previous.getClassPath().equals(result.getClassPath())
+        && currentDeployment.get() != null) {
+        logger.info("Compiled output is unchanged");
+        return skipCompile(otherAction);
+      }
+      return true;
+    } catch(CompileCancelledException e) {
+      markActionCompleted(startTime, "Cancelled compile");
     } catch(CompilerException e) {
       sendStatus(e);
     } catch(Exception e) {
       logger.error("error", e);
       sendStatus(e);
     }
+    return false;
+  }
+
+  // a skipped compile still takes the other actions of its changes, e.g. an edited config file alongside the source
+  private boolean skipCompile(VertxHotAction otherAction) {
+    switch (otherAction) {
+      case Redeploy:
+        logger.info("Redeploying for the other changes");
+        return true;
+      case Refresh:
+        refreshBrowser();
+        return false;
+      default:
+        sendStatus(DeployStatus.UNCHANGED);
+        return false;
+    }
+  }
+
+  // restores the compile result of the last session, if its outputs are intact, returning the files changed since then
+  private Optional<List<Path>> restoreLastSession() {
+    long startTime = System.nanoTime();
+    Optional<BuildManifest> manifest = BuildManifest.load(BuildManifest.file(project()));
+    Optional<CompileResult> result = manifest.flatMap(m -> compiler.restore(project()));
+    if (!result.isPresent()) {
+      return Optional.empty();
+    }
+    if (!manifest.get().isOutputCurrent(outputDirectories(result.get()))) {
+      logger.info("The compiled output has changed since the last session");
+      return Optional.empty();
+    }
+    try {
+      BuildManifest.Diff diff = manifest.get().diff(pathsSupport.pathsThatRequireCompile());
+      lastCompileResult.set(result.get());
+      watchDependencies(result.get());
+      contentDigests.commit(diff.getUnchanged());
+      logger.info("Compared the project with the last session in {}ms: {} file(s) changed",
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime), diff.getChanged().size());
+      return Optional.of(diff.getChanged());
+    } catch (IOException e) {
+      logger.warn("unable to compare the project with the last session", e);
+      return Optional.empty();
+    }
+  }
+
+  private void saveManifest(CompileResult result) {
+    try {
+      BuildManifest.create(contentDigests.committed(), outputDirectories(result)).save(BuildManifest.file(project()));
+    } catch (IOException e) {
+      logger.warn("unable to create the build manifest", e);
+    }
+  }
+
+  // the directories of compiled classes on the class path, i.e. everything but the jars and the resource directories
+  private List<Path> outputDirectories(CompileResult compileResult) {
+    Set<String> resourceDirectories = project().getResources().stream().map(Resource::getDirectory).collect(toSet());
+    return compileResult.getClassPath().stream()
+      .filter(entry -> !resourceDirectories.contains(entry))
+      .map(Paths::get)
+      .filter(Files::isDirectory)
+      .collect(toList());
+  }
+
+  // publishes each error as soon as the compiler reports it, rather than waiting for the compile to fail
+  private void onCompileError(CompileDiagnostic diagnostic) {
+    JsonObject status = new JsonObject()
+      .put("status", DeployStatus.COMPILE_DIAGNOSTIC.toString())
+      .put("diagnostic", toJson(diagnostic));
+    if (compileErrorCount.getAndIncrement() == 0) {
+      long timeToFirstError = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - compileStartTime.get());
+      logger.info("First compile error after {}ms", timeToFirstError);
+      metrics.histogram("compile.timeToFirstError").record(timeToFirstError);
+      status.put("timeToFirstError", timeToFirstError);
+    }
+    statusSubject.onNext(status);
+  }
+
+  // called by the compile scheduler after a successful compile - the deploy waits for any bulk change to settle
+  private void onCompiled() {
+    if (bulkChanges.deferDeploy()) {
+      logger.info("Deferring the deploy until the bulk change has settled");
+    } else {
+      deploy();
+    }
   }
 
+  // only ever called on the compile scheduler's thread, so deploys never overlap
   private void deploy() {
     long startTime = markFileDetectedAction();
     logger.info("Redeploying...");
     sendStatus(DeployStatus.DEPLOYING);
 
     try {
-      currentDeployment.getAndUpdate(existingVerticle -> {
-        sendStatus(DeployStatus.DEPLOYING);
-        closeExistingVerticle(existingVerticle);
-        return deployNewVerticle(lastCompileResult.get());
-      });
+      Closeable deployed;
+      if (swapDeploy) {
+        deployed = swapVerticle(currentDeployment.get());
+      } else {
+        closeExistingVerticle(currentDeployment.get());
+        currentDeployment.set(null);
+        deployed = deployNewVerticle(lastCompileResult.get());
+        currentDeployment.set(deployed);
+      }
 
-      markActionCompleted(startTime, currentDeployment.get() != null ? "Deployed" : "Deployment failed");
+      if (deployed != null) {
+        outputDigests.commit();
+      }
+      metrics.histogram("deploy.time").record(
+        markActionCompleted(startTime, deployed != null ? "Deployed" : "Deployment failed"));
+      sendMetricsStatus();
     } catch(Exception e) {
       logger.error("error", e);
       sendStatus(e);
@@ -225,9 +482,10 @@ public class HotDeploy {
     return System.nanoTime();
   }
 
-  private void markActionCompleted(long startTime, String actionMsg) {
+  private long markActionCompleted(long startTime, String actionMsg) {
     long nanos = System.nanoTime() - startTime;
     logger.info("{} in {}s", actionMsg, String.format("%1.3f", nanos * 1E-9));
+    return TimeUnit.NANOSECONDS.toMillis(nanos);
   }
 
   private Closeable deployNewVerticle(CompileResult compileResult) {
@@ -244,6 +502,20 @@ public class HotDeploy {
     }
   }
 
+  // deploy the new verticle alongside the existing one, which is closed once the requests have switched over
+  private Closeable swapVerticle(Closeable existingVerticle) {
+    Closeable deployed = deployNewVerticle(lastCompileResult.get());
+    if (deployed == null) {
+      if (existingVerticle != null) {
+        logger.info("Keeping the existing deployment");
+      }
+      return null;
+    }
+    currentDeployment.set(deployed);
+    closeExistingVerticle(existingVerticle);
+    return deployed;
+  }
+
   private void closeExistingVerticle(Closeable existingVerticle) {
     // if we have a deployment, shut it down
     if (existingVerticle != null) {
@@ -264,6 +536,31 @@ public class HotDeploy {
         .put("status", deployStatus.toString()));
   }
 
+  private void sendCompilingStatus() {
+    statusSubject.onNext(
+      new JsonObject()
+        .put("status", DeployStatus.COMPILING.toString())
+        .put("cancelledCompiles", compileScheduler.getCancelledCount())
+        .put("supersededCompiles", compileScheduler.getSupersededCount())
+        .put("debounceWindow", debounce.getWindowMillis())
+        .put("eventDelay", debounce.getLastDelayMillis()));
+  }
+
+  private void sendMetricsStatus() {
+    statusSubject.onNext(
+      new JsonObject()
+        .put("status", DeployStatus.METRICS.toString())
+        .put("metrics", metrics.snapshot()));
+  }
+
+  private void sendBulkChangeStatus(boolean inProgress, long files) {
+    statusSubject.onNext(
+      new JsonObject()
+        .put("status", DeployStatus.BULK_CHANGE.toString())
+        .put("inProgress", inProgress)
+        .put("files", files));
+  }
+
   private void sendStatus(Throwable e) {
     JsonObject status = new JsonObject()
       .put("status", DeployStatus.FAILED.toString())
@@ -273,11 +570,22 @@ public class HotDeploy {
       CompilerException ce = (CompilerException)e;
       JsonArray messages = new JsonArray(ce.getMessages().stream().collect(toList()));
       status.put("messages", messages);
+      JsonArray diagnostics = new JsonArray(ce.getDiagnostics().stream().map(this::toJson).collect(toList()));
+      status.put("diagnostics", diagnostics);
     }
 
     statusSubject.onNext(status);
   }
 
+  private JsonObject toJson(CompileDiagnostic diagnostic) {
+    return new JsonObject()
+      .put("file", diagnostic.getFile())
+      .put("line", diagnostic.getLine())
+      .put("column", diagnostic.getColumn())
+      .put("severity", diagnostic.getSeverity().toString())
+      .put("message", diagnostic.getMessage());
+  }
+
   private MavenProject project() {
     return parameters.getProject();
   }
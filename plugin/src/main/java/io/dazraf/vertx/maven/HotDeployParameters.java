@@ -1,5 +1,7 @@
 package io.dazraf.vertx.maven;
 
+import io.dazraf.vertx.maven.compiler.EmbeddedMaven;
+import io.dazraf.vertx.maven.filewatcher.WatchMode;
 import io.dazraf.vertx.maven.plugin.mojo.ExtraPath;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
@@ -18,6 +20,17 @@ public class HotDeployParameters {
   private Optional<String> configFileName = Optional.empty();
   private boolean liveHttpReload;
   private boolean buildResources;
+  private List<String> sourceGeneratingResources = emptyList();
+  private boolean incrementalCompile;
+  private boolean parallelCompile;
+  private boolean ignoreDebugInfoChanges;
+  private List<String> watchIncludes = emptyList();
+  private List<String> watchExcludes = emptyList();
+  private WatchMode watchMode = WatchMode.Auto;
+  private long pollInterval = 1000;
+  private boolean swapDeploy;
+  private Optional<String> mavenDaemon = Optional.empty();
+  private Optional<EmbeddedMaven> embeddedMaven = Optional.empty();
   private int notificationPort;
   private Optional<List<ExtraPath>> extraPaths = Optional.empty();
 
@@ -50,6 +63,61 @@ public class HotDeployParameters {
     return this;
   }
 
+  public HotDeployParameters withSourceGeneratingResources(List<String> sourceGeneratingResources) {
+    this.sourceGeneratingResources = sourceGeneratingResources != null ? sourceGeneratingResources : emptyList();
+    return this;
+  }
+
+  public HotDeployParameters withIncrementalCompile(boolean incrementalCompile) {
+    this.incrementalCompile = incrementalCompile;
+    return this;
+  }
+
+  public HotDeployParameters withParallelCompile(boolean parallelCompile) {
+    this.parallelCompile = parallelCompile;
+    return this;
+  }
+
+  public HotDeployParameters withIgnoreDebugInfoChanges(boolean ignoreDebugInfoChanges) {
+    this.ignoreDebugInfoChanges = ignoreDebugInfoChanges;
+    return this;
+  }
+
+  public HotDeployParameters withWatchIncludes(List<String> watchIncludes) {
+    this.watchIncludes = watchIncludes != null ? watchIncludes : emptyList();
+    return this;
+  }
+
+  public HotDeployParameters withWatchExcludes(List<String> watchExcludes) {
+    this.watchExcludes = watchExcludes != null ? watchExcludes : emptyList();
+    return this;
+  }
+
+  public HotDeployParameters withWatchMode(WatchMode watchMode) {
+    this.watchMode = watchMode != null ? watchMode : WatchMode.Auto;
+    return this;
+  }
+
+  public HotDeployParameters withPollInterval(long pollInterval) {
+    this.pollInterval = pollInterval;
+    return this;
+  }
+
+  public HotDeployParameters withSwapDeploy(boolean swapDeploy) {
+    this.swapDeploy = swapDeploy;
+    return this;
+  }
+
+  public HotDeployParameters withMavenDaemon(String mavenDaemon) {
+    this.mavenDaemon = Optional.ofNullable(mavenDaemon);
+    return this;
+  }
+
+  public HotDeployParameters withEmbeddedMaven(EmbeddedMaven embeddedMaven) {
+    this.embeddedMaven = Optional.ofNullable(embeddedMaven);
+    return this;
+  }
+
   public HotDeployParameters withNotificationPort(int notificationPort) {
     this.notificationPort = notificationPort;
     return this;
@@ -80,6 +148,50 @@ public class HotDeployParameters {
     return buildResources;
   }
 
+  public List<String> getSourceGeneratingResources() {
+    return sourceGeneratingResources;
+  }
+
+  public boolean isIncrementalCompile() {
+    return incrementalCompile;
+  }
+
+  public boolean isParallelCompile() {
+    return parallelCompile;
+  }
+
+  public boolean isIgnoreDebugInfoChanges() {
+    return ignoreDebugInfoChanges;
+  }
+
+  public boolean isSwapDeploy() {
+    return swapDeploy;
+  }
+
+  public List<String> getWatchIncludes() {
+    return watchIncludes;
+  }
+
+  public List<String> getWatchExcludes() {
+    return watchExcludes;
+  }
+
+  public WatchMode getWatchMode() {
+    return watchMode;
+  }
+
+  public long getPollInterval() {
+    return pollInterval;
+  }
+
+  public Optional<String> getMavenDaemon() {
+    return mavenDaemon;
+  }
+
+  public Optional<EmbeddedMaven> getEmbeddedMaven() {
+    return embeddedMaven;
+  }
+
   public int getNotificationPort() {
     return notificationPort;
   }
@@ -95,6 +207,17 @@ public class HotDeployParameters {
       .put("configFileName", configFileName.orElse("undefined"))
       .put("liveHttpReload", liveHttpReload)
       .put("buildResources", buildResources)
+      .put("sourceGeneratingResources", new JsonArray(sourceGeneratingResources))
+      .put("incrementalCompile", incrementalCompile)
+      .put("parallelCompile", parallelCompile)
+      .put("ignoreDebugInfoChanges", ignoreDebugInfoChanges)
+      .put("watchIncludes", new JsonArray(watchIncludes))
+      .put("watchExcludes", new JsonArray(watchExcludes))
+      .put("watchMode", watchMode.toString())
+      .put("pollInterval", pollInterval)
+      .put("swapDeploy", swapDeploy)
+      .put("mavenDaemon", mavenDaemon.orElse("undefined"))
+      .put("embeddedBuild", embeddedMaven.isPresent())
       .put("pom", project != null ? project.getFile().getName() : "undefined")
       .put("extraPaths", new JsonArray(
         extraPaths
@@ -0,0 +1,109 @@
+package io.dazraf.vertx.maven;
+
+import io.dazraf.vertx.maven.filewatcher.WatchFilter;
+import io.dazraf.vertx.maven.plugin.mojo.ExtraPath.VertxHotAction;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps a changed file to the action that it calls for, given the watched paths of each action. The watched paths are
+ * held in an immutable prefix trie over their name elements, with the action and the include/exclude patterns of each
+ * watched path at its node, so classifying a file is a single walk down its path - no streams, and no file system
+ * access. If a file is beneath several watched paths, the strongest of their actions applies.
+ */
+class PathClassifier {
+  private final Map<Path, Node> roots;
+
+  private PathClassifier(Map<Path, Node> roots) {
+    this.roots = roots;
+  }
+
+  static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * @param changed the absolute, normalized path of a changed file
+   * @return the strongest action of the watched paths that the file is, or is beneath
+   */
+  VertxHotAction classify(Path changed) {
+    VertxHotAction strongest = VertxHotAction.Nothing;
+    Node node = changed.getRoot() != null ? roots.get(changed.getRoot()) : null;
+    int nameCount = changed.getNameCount();
+    for (int depth = 0; node != null; depth++) {
+      for (Leaf leaf : node.leaves) {
+        if (leaf.action.compareTo(strongest) > 0 && (depth == nameCount || leaf.filter.accepts(leaf.path.relativize(changed)))) {
+          strongest = leaf.action;
+        }
+      }
+      node = depth < nameCount ? node.children.get(changed.getName(depth)) : null;
+    }
+    return strongest;
+  }
+
+  static class Builder {
+    private final Map<Path, Node> roots = new HashMap<>();
+
+    private Builder() {
+    }
+
+    /**
+     * @param path a watched file or directory
+     * @param action the action that a change to it calls for
+     * @param filter the files beneath it that are watched
+     * @return this builder
+     */
+    Builder add(Path path, VertxHotAction action, WatchFilter filter) {
+      Path normalized = path.toAbsolutePath().normalize();
+      Node node = roots.computeIfAbsent(normalized.getRoot(), root -> new Node());
+      for (Path name : normalized) {
+        node = node.children.computeIfAbsent(name, key -> new Node());
+      }
+      node.leaves.add(new Leaf(normalized, action, filter));
+      return this;
+    }
+
+    PathClassifier build() {
+      Map<Path, Node> frozen = new HashMap<>();
+      roots.forEach((root, node) -> frozen.put(root, node.freeze()));
+      return new PathClassifier(Collections.unmodifiableMap(frozen));
+    }
+  }
+
+  private static class Node {
+    private final Map<Path, Node> children;
+    private final List<Leaf> leaves;
+
+    Node() {
+      this(new HashMap<>(), new ArrayList<>());
+    }
+
+    private Node(Map<Path, Node> children, List<Leaf> leaves) {
+      this.children = children;
+      this.leaves = leaves;
+    }
+
+    Node freeze() {
+      Map<Path, Node> frozen = new HashMap<>();
+      children.forEach((name, child) -> frozen.put(name, child.freeze()));
+      return new Node(Collections.unmodifiableMap(frozen), Collections.unmodifiableList(new ArrayList<>(leaves)));
+    }
+  }
+
+  private static class Leaf {
+    private final Path path;
+    private final VertxHotAction action;
+    private final WatchFilter filter;
+
+    Leaf(Path path, VertxHotAction action, WatchFilter filter) {
+      this.path = path;
+      this.action = action;
+      this.filter = filter;
+    }
+  }
+}
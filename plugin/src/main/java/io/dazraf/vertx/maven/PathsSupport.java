@@ -1,6 +1,9 @@
 package io.dazraf.vertx.maven;
 
+import io.dazraf.vertx.maven.filewatcher.WatchFilter;
 import io.dazraf.vertx.maven.plugin.mojo.ExtraPath;
+import io.dazraf.vertx.maven.plugin.mojo.ExtraPath.VertxHotAction;
+import io.dazraf.vertx.maven.reactor.Reactor;
 import org.apache.maven.model.Resource;
 import org.apache.maven.project.MavenProject;
 
@@ -19,37 +22,107 @@ import static java.util.stream.Stream.empty;
 import static java.util.stream.Stream.of;
 
 public class PathsSupport {
+  private static final String SNAPSHOT = "-SNAPSHOT";
   private final HotDeployParameters parameters;
+  private final Optional<Reactor> reactor;
   private Optional<List<Path>> pathsForCompile = Optional.empty();
   private Optional<List<Path>> pathsForRedeploy = Optional.empty();
   private Optional<List<Path>> pathsForBrowserRefresh = Optional.empty();
+  private volatile PathClassifier classifier;
 
   PathsSupport(HotDeployParameters parameters) {
+    this(parameters, Optional.empty());
+  }
+
+  PathsSupport(HotDeployParameters parameters, Optional<Reactor> reactor) {
     this.parameters = parameters;
+    this.reactor = reactor;
+  }
+
+  synchronized List<Path> pathsThatRequireCompile() {
+    if (!pathsForCompile.isPresent()) { // compute and cache the following
+      pathsForCompile = Optional.of(
+        of(getCompilableFilePaths(), getExtraCompilePaths(), getUpstreamModulePaths()).flatMap(identity()).collect(Collectors.toList()) // otherwise return empty list
+      );
+    }
+    return pathsForCompile.get();
   }
 
-  List<Path> pathsThatRequireCompile() {
-    return pathsForCompile.orElseGet(() -> // compute and cache the following
-      concat(getCompilableFilePaths(), getExtraCompilePaths()).collect(Collectors.toList()) // otherwise return empty list
-    );
+  synchronized List<Path> pathsThatRequireRedeploy() {
+    if (!pathsForRedeploy.isPresent()) { // compute and cache the following
+      pathsForRedeploy = Optional.of(
+        concat(
+          getConfigFilePathStream(),
+          getExtraRedeployPaths()
+        ).collect(Collectors.toList())// otherwise return empty list
+      );
+    }
+    return pathsForRedeploy.get();
   }
 
-  List<Path> pathsThatRequireRedeploy() {
-    return pathsForRedeploy.orElseGet(() -> // compute and cache the following
-      concat(
-        getConfigFilePathStream(),
-        getExtraRedeployPaths()
-      ).collect(Collectors.toList())// otherwise return empty list
-    );
+  synchronized List<Path> pathsThatRequireBrowserRefresh() {
+    if (!pathsForBrowserRefresh.isPresent()) { // compute and cache the following
+      pathsForBrowserRefresh = Optional.of(
+        concat(
+          getWatchableResources(),
+          getExtraRefreshPaths()
+        ).collect(Collectors.toList())// otherwise return empty list
+      );
+    }
+    return pathsForBrowserRefresh.get();
   }
 
-  List<Path> pathsThatRequireBrowserRefresh() {
-    return pathsForBrowserRefresh.orElseGet(() -> // compute and cache the following
-      concat(
-        getWatchableResources(),
-        getExtraRefreshPaths()
-      ).collect(Collectors.toList())// otherwise return empty list
-    );
+  /**
+   * @param changed the absolute, normalized path of a changed file
+   * @return the strongest action that the watched paths of the file call for
+   */
+  VertxHotAction actionFor(Path changed) {
+    PathClassifier current = classifier;
+    if (current == null) {
+      current = buildClassifier();
+    }
+    return current.classify(changed);
+  }
+
+  private synchronized PathClassifier buildClassifier() {
+    if (classifier == null) {
+      PathClassifier.Builder builder = PathClassifier.builder();
+      pathsThatRequireBrowserRefresh().forEach(path -> builder.add(path, VertxHotAction.Refresh, watchFilterFor(path)));
+      pathsThatRequireRedeploy().forEach(path -> builder.add(path, VertxHotAction.Redeploy, watchFilterFor(path)));
+      pathsThatRequireCompile().forEach(path -> builder.add(path, VertxHotAction.Recompile, watchFilterFor(path)));
+      classifier = builder.build();
+    }
+    return classifier;
+  }
+
+  /**
+   * @param path a watched path
+   * @return the global watch includes and excludes, combined with those of the extra path for it, if there is one
+   */
+  WatchFilter watchFilterFor(Path path) {
+    WatchFilter filter = new WatchFilter(parameters.getWatchIncludes(), parameters.getWatchExcludes());
+    return parameters.getExtraPaths()
+      .flatMap(extraPaths -> extraPaths.stream()
+        .filter(extraPath -> resolveRelativePathToProjectRoot(Paths.get(extraPath.getPath())).equals(path))
+        .findFirst())
+      .map(extraPath -> filter.with(extraPath.getIncludes(), extraPath.getExcludes()))
+      .orElse(filter);
+  }
+
+  /**
+   * @param classPath the class path of a compile
+   * @return the entries of the class path that are built outside of this project and its reactor, and that can change
+   * while it runs: SNAPSHOT artifacts (e.g. re-installed by a teammate's library build), and the classes directories of
+   * linked local projects
+   */
+  List<Path> dependencyPathsToWatch(List<String> classPath) {
+    Path basedir = resolveRelativePathToProjectRoot(Paths.get("")).toAbsolutePath().normalize();
+    return classPath.stream()
+      .map(entry -> Paths.get(entry).toAbsolutePath().normalize())
+      .filter(path -> !path.startsWith(basedir))
+      .filter(path -> !reactor.flatMap(r -> r.moduleOf(path)).isPresent())
+      .filter(path -> Files.isDirectory(path) || path.toString().contains(SNAPSHOT) && Files.isRegularFile(path))
+      .collect(Collectors.toList());
   }
 
   private Stream<Path> getExtraCompilePaths() {
@@ -72,6 +145,17 @@ public class PathsSupport {
     ).flatMap(identity()).map(Paths::get);
   }
 
+  private Stream<Path> getUpstreamModulePaths() {
+    return reactor
+      .map(r -> r.getUpstreamModules().stream()) // if we are part of a reactor
+      .map(modules -> modules.flatMap(module -> of( // any change to an upstream module requires it to be rebuilt
+        module.getSourceRoots().stream(),
+        module.getResourceRoots().stream(),
+        of(module.getPomFile())
+      ).flatMap(identity())))
+      .orElse(empty());
+  }
+
   private Stream<String> getBuildableResources() {
     if (parameters.isBuildResources()) {
       return project().getResources().stream().map(Resource::getDirectory);
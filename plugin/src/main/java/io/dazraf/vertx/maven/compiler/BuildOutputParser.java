@@ -0,0 +1,154 @@
+package io.dazraf.vertx.maven.compiler;
+
+import io.dazraf.vertx.maven.compiler.CompileDiagnostic.Severity;
+import org.apache.maven.shared.invoker.InvocationOutputHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * A single pass parser for the output of a maven build.
+ * Each line is dispatched on its log level prefix, and only the lines that can carry a dependency or a diagnostic are
+ * examined further - without any regular expressions.
+ *
+ * Dependency lines, as printed by {@code dependency:resolve}, look like:
+ * {@code [INFO]    io.vertx:vertx-core:jar:3.1.0:compile:/home/me/.m2/repository/io/vertx/vertx-core/3.1.0/vertx-core-3.1.0.jar}
+ *
+ * Diagnostic lines, as printed by the maven compiler plugin, look like:
+ * {@code [ERROR] /home/me/project/src/main/java/App.java:[12,5] cannot find symbol}
+ * Only errors are collected - warnings (e.g. deprecations) don't fail the build, so they have no place in the reported
+ * failure.
+ */
+class BuildOutputParser implements InvocationOutputHandler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BuildOutputParser.class);
+  private static final String INFO = "[INFO] ";
+  private static final String ERROR = "[ERROR] ";
+  private static final String COMPILE_SCOPE = ":compile:";
+  private static final String POSITION_START = ":[";
+  private static final String MODULE_START = " @ ";
+  private static final String MODULE_END = " ---";
+
+  private final boolean resolveDependencies;
+  private final Optional<String> artifactId;
+  private String currentArtifactId = "";
+  private final List<String> dependencies = new ArrayList<>();
+  private final Set<CompileDiagnostic> diagnostics = new LinkedHashSet<>();
+  private final Consumer<CompileDiagnostic> errorListener;
+
+  /**
+   * @param resolveDependencies true if the build is resolving dependencies, and dependency lines should be collected
+   */
+  BuildOutputParser(boolean resolveDependencies) {
+    this(resolveDependencies, Optional.empty());
+  }
+
+  /**
+   * @param resolveDependencies true if the build is resolving dependencies, and dependency lines should be collected
+   * @param artifactId in a reactor build, the module whose dependencies should be collected
+   */
+  BuildOutputParser(boolean resolveDependencies, Optional<String> artifactId) {
+    this(resolveDependencies, artifactId, error -> {});
+  }
+
+  /**
+   * @param resolveDependencies true if the build is resolving dependencies, and dependency lines should be collected
+   * @param artifactId in a reactor build, the module whose dependencies should be collected
+   * @param errorListener called with each distinct error as soon as it is parsed, while the build is still running
+   */
+  BuildOutputParser(boolean resolveDependencies, Optional<String> artifactId, Consumer<CompileDiagnostic> errorListener) {
+    this.resolveDependencies = resolveDependencies;
+    this.artifactId = artifactId;
+    this.errorListener = errorListener;
+  }
+
+  @Override
+  public void consumeLine(String line) {
+    if (line.startsWith(INFO)) {
+      if (resolveDependencies) {
+        parseModule(line);
+        parseDependency(line);
+      }
+    } else if (line.startsWith(ERROR)) {
+      parseError(line, ERROR.length());
+    } else if (LOGGER.isTraceEnabled()) {
+      LOGGER.trace("> {}", line);
+    }
+  }
+
+  /**
+   * @return the dependency class path entries, in the order they were reported
+   */
+  List<String> getDependencies() {
+    return dependencies;
+  }
+
+  /**
+   * @return the distinct errors, in the order they were reported
+   */
+  Collection<CompileDiagnostic> getDiagnostics() {
+    return diagnostics;
+  }
+
+  // tracks the module being built, from the mojo execution headers e.g. "[INFO] --- maven-compiler-plugin:3.2:compile (default-compile) @ core ---"
+  private void parseModule(String line) {
+    if (artifactId.isPresent() && line.endsWith(MODULE_END)) {
+      int index = line.lastIndexOf(MODULE_START);
+      if (index >= 0) {
+        currentArtifactId = line.substring(index + MODULE_START.length(), line.length() - MODULE_END.length());
+      }
+    }
+  }
+
+  private void parseDependency(String line) {
+    if (artifactId.isPresent() && !artifactId.get().equals(currentArtifactId)) {
+      return;
+    }
+    int index = line.lastIndexOf(COMPILE_SCOPE);
+    if (index >= 0) {
+      dependencies.add(line.substring(index + COMPILE_SCOPE.length()));
+    }
+  }
+
+  // parses "<file>:[<line>,<column>] <message>", starting at offset
+  private void parseError(String line, int offset) {
+    int positionStart = line.indexOf(POSITION_START, offset);
+    if (positionStart <= offset) {
+      return;
+    }
+    int index = positionStart + POSITION_START.length();
+    long lineNumber = 0;
+    int digits = 0;
+    for (; index < line.length() && isDigit(line.charAt(index)); index++, digits++) {
+      lineNumber = lineNumber * 10 + (line.charAt(index) - '0');
+    }
+    if (digits == 0 || index >= line.length() || line.charAt(index) != ',') {
+      return;
+    }
+    index++;
+    long column = 0;
+    digits = 0;
+    for (; index < line.length() && isDigit(line.charAt(index)); index++, digits++) {
+      column = column * 10 + (line.charAt(index) - '0');
+    }
+    if (digits == 0 || index >= line.length() || line.charAt(index) != ']') {
+      return;
+    }
+    index++;
+    String message = index < line.length() ? line.substring(index).trim() : "";
+    CompileDiagnostic diagnostic = new CompileDiagnostic(line.substring(offset, positionStart), lineNumber, column, Severity.ERROR, message);
+    if (diagnostics.add(diagnostic)) {
+      errorListener.accept(diagnostic);
+    }
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+}
@@ -0,0 +1,214 @@
+package io.dazraf.vertx.maven.compiler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * An in-memory index of the dependencies between the classes of a project, built from the constant pools of the
+ * class files that the compiler has produced. It maps each source file to the classes compiled from it, and each class
+ * to the classes that refer to it, so that the set of sources affected by a change can be computed. It also maps each
+ * class to its direct subtypes, as a change to the ABI of a class is inherited by all of its subtypes.
+ */
+class ClassDependencyIndex {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ClassDependencyIndex.class);
+  private static final String CLASS_EXTENSION = ".class";
+
+  private final Map<Path, Set<String>> classesBySource = new HashMap<>();
+  private final Map<String, Path> sourceByClass = new HashMap<>();
+  private final Map<String, ClassFile> classFiles = new HashMap<>();
+  private final Map<String, Set<String>> dependentsByClass = new HashMap<>();
+  private final Map<String, Set<String>> subtypesByClass = new HashMap<>();
+
+  /**
+   * @return true if the index holds no classes, e.g. before it has been built
+   */
+  boolean isEmpty() {
+    return classFiles.isEmpty();
+  }
+
+  /**
+   * @return the number of sources in the index
+   */
+  int sourceCount() {
+    return classesBySource.size();
+  }
+
+  /**
+   * @return all the sources in the index
+   */
+  Set<Path> sources() {
+    return Collections.unmodifiableSet(classesBySource.keySet());
+  }
+
+  /**
+   * Discard the contents of the index
+   */
+  void clear() {
+    classesBySource.clear();
+    sourceByClass.clear();
+    classFiles.clear();
+    dependentsByClass.clear();
+    subtypesByClass.clear();
+  }
+
+  /**
+   * Discard the index and rebuild it from the class files in the output directory, locating the source of each class
+   * via its SourceFile attribute
+   *
+   * @param outputDirectory the directory containing the compiled classes
+   * @param sourceRoots the source roots of the project
+   */
+  void rebuild(Path outputDirectory, List<Path> sourceRoots) {
+    long startTime = System.nanoTime();
+    clear();
+    if (!Files.isDirectory(outputDirectory)) {
+      return;
+    }
+    try (Stream<Path> paths = Files.walk(outputDirectory)) {
+      paths.filter(path -> path.toString().endsWith(CLASS_EXTENSION)).forEach(classFile -> {
+        try {
+          ClassFile parsed = ClassFile.read(classFile);
+          locateSource(outputDirectory.relativize(classFile), parsed, sourceRoots)
+            .ifPresent(source -> add(source, parsed));
+        } catch (IOException e) {
+          LOGGER.warn("unable to index {}", classFile, e);
+        }
+      });
+    } catch (IOException e) {
+      LOGGER.warn("unable to index {}", outputDirectory, e);
+    }
+    LOGGER.debug("indexed {} classes in {}s", classFiles.size(), String.format("%1.3f", (System.nanoTime() - startTime) * 1E-9));
+  }
+
+  /**
+   * Replace the classes recorded against a source, e.g. after it has been recompiled
+   *
+   * @param source the source file
+   * @param compiled the classes now compiled from it
+   * @return the classes previously compiled from the source that no longer exist
+   */
+  Set<String> update(Path source, Collection<ClassFile> compiled) {
+    Set<String> removed = remove(source);
+    compiled.forEach(classFile -> {
+      add(source, classFile);
+      removed.remove(classFile.getClassName());
+    });
+    return removed;
+  }
+
+  /**
+   * Remove a source, and the classes compiled from it, from the index
+   *
+   * @param source the source file
+   * @return the classes that were compiled from the source
+   */
+  Set<String> remove(Path source) {
+    Set<String> classes = classesBySource.remove(source);
+    if (classes == null) {
+      return new HashSet<>();
+    }
+    classes.forEach(className -> {
+      sourceByClass.remove(className);
+      ClassFile classFile = classFiles.remove(className);
+      if (classFile != null) {
+        classFile.getReferencedClasses().forEach(referenced -> {
+          Set<String> dependents = dependentsByClass.get(referenced);
+          if (dependents != null) {
+            dependents.remove(className);
+          }
+        });
+        classFile.getSupertypes().forEach(supertype -> {
+          Set<String> subtypes = subtypesByClass.get(supertype);
+          if (subtypes != null) {
+            subtypes.remove(className);
+          }
+        });
+      }
+    });
+    return new HashSet<>(classes);
+  }
+
+  /**
+   * @param source the source file
+   * @return the classes currently compiled from the source
+   */
+  Collection<ClassFile> classesOf(Path source) {
+    return classesBySource.getOrDefault(source, Collections.emptySet()).stream()
+      .map(classFiles::get)
+      .filter(Objects::nonNull)
+      .collect(toList());
+  }
+
+  /**
+   * @param className a class
+   * @return the source that the class was compiled from, if it is in the index
+   */
+  Optional<Path> sourceOf(String className) {
+    return Optional.ofNullable(sourceByClass.get(className));
+  }
+
+  /**
+   * @param classNames a set of classes
+   * @return the sources of all the classes that refer to any of the given classes
+   */
+  Set<Path> dependentSources(Collection<String> classNames) {
+    Set<Path> result = new HashSet<>();
+    classNames.forEach(className ->
+      dependentsByClass.getOrDefault(className, Collections.emptySet()).forEach(dependent -> {
+        Path source = sourceByClass.get(dependent);
+        if (source != null) {
+          result.add(source);
+        }
+      }));
+    return result;
+  }
+
+  /**
+   * @param classNames a set of classes
+   * @return the given classes, and all of the classes that extend or implement them, directly or indirectly
+   */
+  Set<String> withSubtypes(Collection<String> classNames) {
+    Set<String> result = new HashSet<>(classNames);
+    Deque<String> remaining = new ArrayDeque<>(classNames);
+    while (!remaining.isEmpty()) {
+      subtypesByClass.getOrDefault(remaining.pop(), Collections.emptySet()).forEach(subtype -> {
+        if (result.add(subtype)) {
+          remaining.push(subtype);
+        }
+      });
+    }
+    return result;
+  }
+
+  private void add(Path source, ClassFile classFile) {
+    String className = classFile.getClassName();
+    classesBySource.computeIfAbsent(source, s -> new HashSet<>()).add(className);
+    sourceByClass.put(className, source);
+    classFiles.put(className, classFile);
+    classFile.getReferencedClasses().forEach(referenced ->
+      dependentsByClass.computeIfAbsent(referenced, r -> new HashSet<>()).add(className));
+    classFile.getSupertypes().forEach(supertype ->
+      subtypesByClass.computeIfAbsent(supertype, s -> new HashSet<>()).add(className));
+  }
+
+  private Optional<Path> locateSource(Path relativeClassFile, ClassFile classFile, List<Path> sourceRoots) {
+    if (!classFile.getSourceFile().isPresent()) {
+      return Optional.empty();
+    }
+    Path packageDirectory = relativeClassFile.getParent();
+    String sourceFile = classFile.getSourceFile().get();
+    Path relativeSource = packageDirectory == null ? relativeClassFile.getFileSystem().getPath(sourceFile) : packageDirectory.resolve(sourceFile);
+    return sourceRoots.stream()
+      .map(root -> root.resolve(relativeSource.toString()))
+      .filter(Files::exists)
+      .findFirst();
+  }
+}
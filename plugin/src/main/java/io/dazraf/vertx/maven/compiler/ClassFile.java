@@ -0,0 +1,385 @@
+package io.dazraf.vertx.maven.compiler;
+
+import io.dazraf.vertx.maven.digest.Sha1;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.*;
+
+/**
+ * A minimal reader for the parts of a class file that the compiler needs: the classes it references (from its
+ * constant pool), a digest of its public ABI, i.e. everything that a dependent class could be compiled against, and a
+ * digest of everything but its debug information.
+ */
+class ClassFile {
+  private static final int MAGIC = 0xCAFEBABE;
+  private static final int ACC_PRIVATE = 0x0002;
+  private static final int ACC_SUPER = 0x0020;
+  private static final int ACC_SYNTHETIC = 0x1000;
+
+  private static final int CONSTANT_UTF8 = 1;
+  private static final int CONSTANT_INTEGER = 3;
+  private static final int CONSTANT_FLOAT = 4;
+  private static final int CONSTANT_LONG = 5;
+  private static final int CONSTANT_DOUBLE = 6;
+  private static final int CONSTANT_CLASS = 7;
+  private static final int CONSTANT_STRING = 8;
+  private static final int CONSTANT_FIELDREF = 9;
+  private static final int CONSTANT_METHODREF = 10;
+  private static final int CONSTANT_INTERFACE_METHODREF = 11;
+  private static final int CONSTANT_NAME_AND_TYPE = 12;
+  private static final int CONSTANT_METHOD_HANDLE = 15;
+  private static final int CONSTANT_METHOD_TYPE = 16;
+  private static final int CONSTANT_DYNAMIC = 17;
+  private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+  private static final int CONSTANT_MODULE = 19;
+  private static final int CONSTANT_PACKAGE = 20;
+
+  // the attributes that only describe the source to a debugger, and so change whenever lines are added or removed
+  private static final Set<String> DEBUG_ATTRIBUTES = new HashSet<>(Arrays.asList(
+    "LineNumberTable", "LocalVariableTable", "LocalVariableTypeTable", "SourceDebugExtension"));
+
+  private final String className;
+  private final Optional<String> sourceFile;
+  private final Set<String> referencedClasses;
+  private final Set<String> supertypes;
+  private final String abiDigest;
+  private final String constantsDigest;
+  private final String materialDigest;
+
+  private ClassFile(String className, Optional<String> sourceFile, Set<String> referencedClasses, Set<String> supertypes,
+                    String abiDigest, String constantsDigest, String materialDigest) {
+    this.className = className;
+    this.sourceFile = sourceFile;
+    this.referencedClasses = referencedClasses;
+    this.supertypes = supertypes;
+    this.abiDigest = abiDigest;
+    this.constantsDigest = constantsDigest;
+    this.materialDigest = materialDigest;
+  }
+
+  static ClassFile read(Path path) throws IOException {
+    return read(Files.readAllBytes(path));
+  }
+
+  static ClassFile read(byte[] bytes) throws IOException {
+    return new Parser(bytes).parse();
+  }
+
+  /**
+   * @return the binary name of the class, e.g. {@code a.b.Foo$Bar}
+   */
+  String getClassName() {
+    return className;
+  }
+
+  /**
+   * @return the name of the source file, without any directory, as recorded by the compiler
+   */
+  Optional<String> getSourceFile() {
+    return sourceFile;
+  }
+
+  /**
+   * @return the binary names of all the classes that this class refers to
+   */
+  Set<String> getReferencedClasses() {
+    return referencedClasses;
+  }
+
+  /**
+   * @return the binary names of the direct superclass and interfaces of this class
+   */
+  Set<String> getSupertypes() {
+    return supertypes;
+  }
+
+  /**
+   * @return a digest of the non-private signature of the class
+   */
+  String getAbiDigest() {
+    return abiDigest;
+  }
+
+  /**
+   * @return a digest of the compile-time constant fields of the class. Because javac inlines these into the classes
+   * that use them, a change here is not visible in the constant pools of the dependents.
+   */
+  String getConstantsDigest() {
+    return constantsDigest;
+  }
+
+  /**
+   * @return a digest of the whole class file, less its debug attributes (line numbers and local variable tables). Two
+   * compiles of a source that differ only in comments or blank lines have the same material digest.
+   */
+  String getMaterialDigest() {
+    return materialDigest;
+  }
+
+  private static class Parser {
+    private final byte[] bytes;
+    private final ByteArrayInputStream input;
+    private final DataInputStream in;
+    private final List<int[]> debugRanges = new ArrayList<>(); // the [start, end) offsets left out of the material digest
+    private int[] tags;
+    private Object[] values; // Utf8 strings, boxed numbers, or int[] of indices for the other entries
+    private final Set<String> referencedClasses = new HashSet<>();
+    private final SortedSet<String> abi = new TreeSet<>();
+    private final SortedSet<String> constants = new TreeSet<>();
+    private Optional<String> sourceFile = Optional.empty();
+
+    Parser(byte[] bytes) {
+      this.bytes = bytes;
+      this.input = new ByteArrayInputStream(bytes);
+      this.in = new DataInputStream(input);
+    }
+
+    ClassFile parse() throws IOException {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("not a class file");
+      }
+      in.readUnsignedShort(); // minor version
+      in.readUnsignedShort(); // major version
+      readConstantPool();
+
+      int accessFlags = in.readUnsignedShort() & ~ACC_SUPER;
+      String thisClass = className(in.readUnsignedShort());
+      int superIndex = in.readUnsignedShort();
+      String superClass = superIndex == 0 ? "" : className(superIndex);
+      SortedSet<String> interfaces = new TreeSet<>();
+      int interfaceCount = in.readUnsignedShort();
+      for (int i = 0; i < interfaceCount; i++) {
+        interfaces.add(className(in.readUnsignedShort()));
+      }
+      abi.add("class " + accessFlags + " " + thisClass + " extends " + superClass + " implements " + interfaces);
+      Set<String> supertypes = new HashSet<>(interfaces);
+      if (!superClass.isEmpty()) {
+        supertypes.add(superClass);
+      }
+
+      readMembers("field");
+      readMembers("method");
+      readAttributes("class", true);
+
+      for (int i = 1; i < tags.length; i++) {
+        if (tags[i] == CONSTANT_CLASS) {
+          addReferencedType(utf8(((int[]) values[i])[0]));
+        } else if (tags[i] == CONSTANT_UTF8) {
+          addDescriptorTypes((String) values[i]);
+        }
+      }
+      referencedClasses.remove(thisClass);
+      return new ClassFile(thisClass, sourceFile, Collections.unmodifiableSet(referencedClasses),
+        Collections.unmodifiableSet(supertypes), digest(abi), digest(constants), materialDigest());
+    }
+
+    private void readConstantPool() throws IOException {
+      int count = in.readUnsignedShort();
+      tags = new int[count];
+      values = new Object[count];
+      for (int i = 1; i < count; i++) {
+        int tag = in.readUnsignedByte();
+        tags[i] = tag;
+        switch (tag) {
+          case CONSTANT_UTF8:
+            values[i] = in.readUTF();
+            break;
+          case CONSTANT_INTEGER:
+            values[i] = in.readInt();
+            break;
+          case CONSTANT_FLOAT:
+            values[i] = in.readFloat();
+            break;
+          case CONSTANT_LONG:
+            values[i++] = in.readLong();
+            break;
+          case CONSTANT_DOUBLE:
+            values[i++] = in.readDouble();
+            break;
+          case CONSTANT_CLASS:
+          case CONSTANT_STRING:
+          case CONSTANT_METHOD_TYPE:
+          case CONSTANT_MODULE:
+          case CONSTANT_PACKAGE:
+            values[i] = new int[]{in.readUnsignedShort()};
+            break;
+          case CONSTANT_FIELDREF:
+          case CONSTANT_METHODREF:
+          case CONSTANT_INTERFACE_METHODREF:
+          case CONSTANT_NAME_AND_TYPE:
+          case CONSTANT_DYNAMIC:
+          case CONSTANT_INVOKE_DYNAMIC:
+            values[i] = new int[]{in.readUnsignedShort(), in.readUnsignedShort()};
+            break;
+          case CONSTANT_METHOD_HANDLE:
+            values[i] = new int[]{in.readUnsignedByte(), in.readUnsignedShort()};
+            break;
+          default:
+            throw new IOException("unknown constant pool tag " + tag + " at " + i);
+        }
+      }
+    }
+
+    private void readMembers(String kind) throws IOException {
+      int count = in.readUnsignedShort();
+      for (int i = 0; i < count; i++) {
+        int accessFlags = in.readUnsignedShort();
+        String member = kind + " " + accessFlags + " " + utf8(in.readUnsignedShort()) + " " + utf8(in.readUnsignedShort());
+        boolean visible = (accessFlags & (ACC_PRIVATE | ACC_SYNTHETIC)) == 0;
+        String attributes = readAttributes(member, visible);
+        if (visible) {
+          abi.add(member + attributes);
+        }
+      }
+    }
+
+    // reads the attributes, returning the description of those that form part of the ABI
+    private String readAttributes(String owner, boolean visible) throws IOException {
+      StringBuilder sb = new StringBuilder();
+      int count = in.readUnsignedShort();
+      for (int i = 0; i < count; i++) {
+        int start = position();
+        String name = utf8(in.readUnsignedShort());
+        int length = in.readInt();
+        if (DEBUG_ATTRIBUTES.contains(name)) {
+          debugRanges.add(new int[]{start, start + 6 + length});
+          skip(length);
+          continue;
+        }
+        switch (name) {
+          case "ConstantValue":
+            String constant = " = " + constant(in.readUnsignedShort());
+            sb.append(constant);
+            if (visible) {
+              constants.add(owner + constant);
+            }
+            break;
+          case "Signature":
+            sb.append(" signature ").append(utf8(in.readUnsignedShort()));
+            break;
+          case "SourceFile":
+            sourceFile = Optional.of(utf8(in.readUnsignedShort()));
+            break;
+          case "Exceptions":
+            int exceptions = in.readUnsignedShort();
+            for (int e = 0; e < exceptions; e++) {
+              sb.append(" throws ").append(className(in.readUnsignedShort()));
+            }
+            break;
+          case "Code":
+            // the length of the code attribute includes its debug attributes, so is left out along with them
+            debugRanges.add(new int[]{start + 2, start + 6});
+            in.readUnsignedShort(); // max stack
+            in.readUnsignedShort(); // max locals
+            skip(in.readInt());
+            skip(in.readUnsignedShort() * 8); // exception table
+            readAttributes("code", false);
+            break;
+          default:
+            skip(length);
+        }
+      }
+      if (visible && sb.length() > 0 && owner.equals("class")) {
+        abi.add("class" + sb);
+      }
+      return sb.toString();
+    }
+
+    private void skip(int length) throws IOException {
+      int remaining = length;
+      while (remaining > 0) {
+        int skipped = in.skipBytes(remaining);
+        if (skipped <= 0) {
+          throw new IOException("unexpected end of class file");
+        }
+        remaining -= skipped;
+      }
+    }
+
+    private int position() {
+      return bytes.length - input.available();
+    }
+
+    private String materialDigest() {
+      MessageDigest digest = Sha1.create();
+      int offset = 0;
+      for (int[] range : debugRanges) {
+        digest.update(bytes, offset, range[0] - offset);
+        offset = range[1];
+      }
+      digest.update(bytes, offset, bytes.length - offset);
+      return Sha1.encode(digest);
+    }
+
+    private String utf8(int index) {
+      return (String) values[index];
+    }
+
+    private String className(int index) {
+      return utf8(((int[]) values[index])[0]).replace('/', '.');
+    }
+
+    private String constant(int index) {
+      if (tags[index] == CONSTANT_STRING) {
+        return '"' + utf8(((int[]) values[index])[0]) + '"';
+      }
+      return String.valueOf(values[index]);
+    }
+
+    private void addReferencedType(String internalName) {
+      if (internalName.startsWith("[")) {
+        addDescriptorTypes(internalName);
+      } else {
+        referencedClasses.add(internalName.replace('/', '.'));
+      }
+    }
+
+    // extracts the object types from anything that looks like a field or method descriptor or signature
+    private void addDescriptorTypes(String descriptor) {
+      int length = descriptor.length();
+      if (length == 0 || "([L<".indexOf(descriptor.charAt(0)) < 0 || descriptor.indexOf(';') < 0) {
+        return;
+      }
+      int i = 0;
+      while (i < length) {
+        char c = descriptor.charAt(i);
+        if (c == 'L') {
+          int end = endOfName(descriptor, i + 1);
+          if (end >= length) {
+            return; // not a descriptor after all
+          }
+          referencedClasses.add(descriptor.substring(i + 1, end).replace('/', '.'));
+          i = descriptor.charAt(end) == ';' ? end + 1 : end;
+        } else if (c == 'T' || c == '.') {
+          // a type variable, or the simple name of an inner class of a parameterized type
+          i = endOfName(descriptor, i + 1) + 1;
+        } else {
+          i++;
+        }
+      }
+    }
+
+    private static int endOfName(String descriptor, int start) {
+      int end = start;
+      while (end < descriptor.length() && descriptor.charAt(end) != ';' && descriptor.charAt(end) != '<') {
+        end++;
+      }
+      return end;
+    }
+
+    private static String digest(Collection<String> lines) {
+      MessageDigest digest = Sha1.create();
+      lines.forEach(line -> {
+        digest.update(line.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+      });
+      return Sha1.encode(digest);
+    }
+  }
+}
@@ -0,0 +1,187 @@
+package io.dazraf.vertx.maven.compiler;
+
+import io.dazraf.vertx.maven.digest.Sha1;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Persists the dependency class path resolved by maven under the project's build directory, so that
+ * {@code dependency:resolve} only needs to run when the set of dependencies has changed.
+ *
+ * The cache key is a digest of the {@code <dependencies>}, {@code <dependencyManagement>} and properties of the pom
+ * (and any local parent poms, and the poms of any upstream reactor modules) as they are on disk, together with the
+ * timestamps of any SNAPSHOT jars on the class path.
+ */
+class ClassPathCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ClassPathCache.class);
+  private static final String CACHE_FILE = "vertx-hot/classpath.cache";
+  private static final String SNAPSHOT = "-SNAPSHOT";
+  private static final String DEFAULT_PARENT_PATH = "../pom.xml";
+  private final Collection<Path> additionalPoms;
+
+  ClassPathCache() {
+    this(Collections.emptyList());
+  }
+
+  /**
+   * @param additionalPoms other poms whose dependencies affect the class path, e.g. of upstream reactor modules
+   */
+  ClassPathCache(Collection<Path> additionalPoms) {
+    this.additionalPoms = additionalPoms;
+  }
+
+  /**
+   * Load the cached dependency class path for the project
+   *
+   * @param project the maven project
+   * @return the cached dependency class path, or empty if there is no cache or the dependencies have changed
+   */
+  Optional<List<String>> load(MavenProject project) {
+    Path cacheFile = cacheFile(project);
+    if (!Files.exists(cacheFile)) {
+      return Optional.empty();
+    }
+    try {
+      List<String> lines = Files.readAllLines(cacheFile, StandardCharsets.UTF_8);
+      if (lines.isEmpty()) {
+        return Optional.empty();
+      }
+      List<String> classPath = new ArrayList<>(lines.subList(1, lines.size()));
+      Optional<String> key = createKey(project, classPath);
+      if (key.isPresent() && key.get().equals(lines.get(0))) {
+        LOGGER.debug("using cached class path from {}", cacheFile);
+        return Optional.of(classPath);
+      }
+      LOGGER.info("dependencies have changed since the last build");
+    } catch (IOException e) {
+      LOGGER.warn("failed to read class path cache {}", cacheFile, e);
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Save the dependency class path, as resolved by maven, for the project
+   *
+   * @param project the maven project
+   * @param classPath the resolved dependency class path
+   */
+  void save(MavenProject project, List<String> classPath) {
+    Optional<String> key = createKey(project, classPath);
+    if (!key.isPresent()) {
+      return;
+    }
+    Path cacheFile = cacheFile(project);
+    List<String> lines = new ArrayList<>();
+    lines.add(key.get());
+    lines.addAll(classPath);
+    try {
+      Files.createDirectories(cacheFile.getParent());
+      Files.write(cacheFile, lines, StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      LOGGER.warn("failed to write class path cache {}", cacheFile, e);
+    }
+  }
+
+  /**
+   * @param project the maven project
+   * @return the build directory of the project, e.g. {@code target}
+   */
+  static Path buildDirectory(MavenProject project) {
+    String directory = project.getBuild().getDirectory();
+    if (directory != null) {
+      return Paths.get(directory);
+    }
+    // fall back to the parent of the output directory, e.g. target/classes
+    return Paths.get(project.getBuild().getOutputDirectory()).getParent();
+  }
+
+  private Path cacheFile(MavenProject project) {
+    return buildDirectory(project).resolve(CACHE_FILE);
+  }
+
+  private Optional<String> createKey(MavenProject project, List<String> classPath) {
+    try {
+      MessageDigest digest = Sha1.create();
+      File pom = project.getFile();
+      while (pom != null) {
+        pom = digestModel(pom, digest);
+      }
+      for (Path additionalPom : additionalPoms) {
+        digestModel(additionalPom.toFile(), digest);
+      }
+      for (String entry : classPath) {
+        digest.update(entry.getBytes(StandardCharsets.UTF_8));
+        if (entry.contains(SNAPSHOT)) {
+          digest.update(Long.toString(new File(entry).lastModified()).getBytes(StandardCharsets.UTF_8));
+        }
+      }
+      return Optional.of(Sha1.encode(digest));
+    } catch (IOException | XmlPullParserException e) {
+      LOGGER.warn("unable to compute the dependency key for {}", project.getFile(), e);
+      return Optional.empty();
+    }
+  }
+
+  // digests the parts of the model that affect dependency resolution, returning the local parent pom, if any
+  private File digestModel(File pom, MessageDigest digest) throws IOException, XmlPullParserException {
+    Model model;
+    try (Reader reader = Files.newBufferedReader(pom.toPath(), StandardCharsets.UTF_8)) {
+      model = new MavenXpp3Reader().read(reader, false);
+    }
+    StringBuilder sb = new StringBuilder();
+    model.getDependencies().forEach(dependency -> appendDependency(sb, dependency));
+    DependencyManagement dependencyManagement = model.getDependencyManagement();
+    if (dependencyManagement != null) {
+      sb.append("<dependencyManagement>");
+      dependencyManagement.getDependencies().forEach(dependency -> appendDependency(sb, dependency));
+    }
+    new TreeMap<>(model.getProperties()).forEach((key, value) -> sb.append(key).append('=').append(value).append('\n'));
+    digest.update(sb.toString().getBytes(StandardCharsets.UTF_8));
+
+    Parent parent = model.getParent();
+    if (parent == null) {
+      return null;
+    }
+    digest.update(parent.getId().getBytes(StandardCharsets.UTF_8));
+    String relativePath = parent.getRelativePath() != null ? parent.getRelativePath() : DEFAULT_PARENT_PATH;
+    File parentPom = pom.toPath().getParent().resolve(relativePath).toFile();
+    if (parentPom.isDirectory()) {
+      parentPom = new File(parentPom, "pom.xml");
+    }
+    return parentPom.isFile() ? parentPom : null;
+  }
+
+  private void appendDependency(StringBuilder sb, Dependency dependency) {
+    sb.append(dependency.getManagementKey())
+      .append(':').append(dependency.getVersion())
+      .append(':').append(dependency.getScope())
+      .append(':').append(dependency.getSystemPath())
+      .append(':').append(dependency.isOptional());
+    List<Exclusion> exclusions = dependency.getExclusions() != null ? dependency.getExclusions() : Collections.emptyList();
+    exclusions.forEach(exclusion -> sb.append(":!").append(exclusion.getGroupId()).append(':').append(exclusion.getArtifactId()));
+    sb.append('\n');
+  }
+}
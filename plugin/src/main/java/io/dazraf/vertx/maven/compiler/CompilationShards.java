@@ -0,0 +1,139 @@
+package io.dazraf.vertx.maven.compiler;
+
+import java.nio.file.Path;
+import java.util.*;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Splits a set of sources into shards that can be compiled concurrently.
+ *
+ * The sources are grouped by package, and the packages are linked by the class references recorded in a
+ * {@link ClassDependencyIndex}. Packages that depend on each other, directly or through a cycle, form a strongly
+ * connected component that must be compiled together. The components are then arranged into waves: every component
+ * in a wave depends only on components in earlier waves, so the components of a wave are independent, and are
+ * packed into at most {@code parallelism} shards of roughly equal size.
+ *
+ * A source that isn't in the index yet (i.e. a new one) has no known dependencies or dependents, so javac would
+ * quietly pull it into every shard that refers to it through the source path. If there are any, the sources are
+ * compiled as one shard instead.
+ */
+class CompilationShards {
+  private final Map<Path, Set<Path>> sourcesByPackage = new LinkedHashMap<>();
+  private final Map<Path, Set<Path>> dependenciesByPackage = new HashMap<>();
+
+  private CompilationShards(Collection<Path> sources, ClassDependencyIndex index) {
+    sources.forEach(source -> sourcesByPackage.computeIfAbsent(source.getParent(), p -> new LinkedHashSet<>()).add(source));
+    sourcesByPackage.forEach((packageDirectory, packageSources) -> {
+      Set<Path> dependencies = new HashSet<>();
+      packageSources.stream()
+        .flatMap(source -> index.classesOf(source).stream())
+        .flatMap(classFile -> classFile.getReferencedClasses().stream())
+        .map(index::sourceOf)
+        .filter(Optional::isPresent)
+        .map(source -> source.get().getParent())
+        .filter(sourcesByPackage::containsKey)
+        .forEach(dependencies::add);
+      dependencies.remove(packageDirectory);
+      dependenciesByPackage.put(packageDirectory, dependencies);
+    });
+  }
+
+  /**
+   * Plan the shards for a set of sources
+   *
+   * @param sources the sources to compile
+   * @param index the class dependency index, as of the last compile
+   * @param parallelism the maximum number of shards in a wave
+   * @return the waves of shards, in the order they must be compiled
+   */
+  static List<List<Set<Path>>> plan(Collection<Path> sources, ClassDependencyIndex index, int parallelism) {
+    if (sources.stream().anyMatch(source -> index.classesOf(source).isEmpty())) {
+      return Collections.singletonList(Collections.singletonList(new LinkedHashSet<>(sources)));
+    }
+    return new CompilationShards(sources, index).waves(parallelism);
+  }
+
+  private List<List<Set<Path>>> waves(int parallelism) {
+    List<Set<Path>> components = new StronglyConnectedComponents().find();
+
+    // components are found dependencies first, so each one's wave can be computed from those already seen
+    Map<Path, Integer> waveByPackage = new HashMap<>();
+    List<List<Set<Path>>> componentsByWave = new ArrayList<>();
+    for (Set<Path> component : components) {
+      int wave = component.stream()
+        .flatMap(packageDirectory -> dependenciesByPackage.get(packageDirectory).stream())
+        .filter(dependency -> !component.contains(dependency))
+        .mapToInt(dependency -> waveByPackage.get(dependency) + 1)
+        .max().orElse(0);
+      component.forEach(packageDirectory -> waveByPackage.put(packageDirectory, wave));
+      while (componentsByWave.size() <= wave) {
+        componentsByWave.add(new ArrayList<>());
+      }
+      componentsByWave.get(wave).add(component);
+    }
+    return componentsByWave.stream().map(wave -> pack(wave, parallelism)).collect(toList());
+  }
+
+  // packs the components of a wave into shards, largest component first into the smallest shard
+  private List<Set<Path>> pack(List<Set<Path>> components, int parallelism) {
+    List<Set<Path>> shards = new ArrayList<>();
+    components.stream()
+      .map(component -> component.stream().flatMap(packageDirectory -> sourcesByPackage.get(packageDirectory).stream()).collect(toList()))
+      .sorted(Comparator.comparingInt(List<Path>::size).reversed())
+      .forEach(componentSources -> {
+        if (shards.size() < parallelism) {
+          shards.add(new LinkedHashSet<>(componentSources));
+        } else {
+          shards.stream().min(Comparator.comparingInt(Set::size)).get().addAll(componentSources);
+        }
+      });
+    return shards;
+  }
+
+  /**
+   * Tarjan's algorithm over the package graph, which yields each component after the components it depends upon
+   */
+  private class StronglyConnectedComponents {
+    private final Map<Path, Integer> indexes = new HashMap<>();
+    private final Map<Path, Integer> lowLinks = new HashMap<>();
+    private final Deque<Path> stack = new ArrayDeque<>();
+    private final Set<Path> onStack = new HashSet<>();
+    private final List<Set<Path>> components = new ArrayList<>();
+
+    List<Set<Path>> find() {
+      sourcesByPackage.keySet().stream()
+        .filter(packageDirectory -> !indexes.containsKey(packageDirectory))
+        .forEach(this::visit);
+      return components;
+    }
+
+    private void visit(Path packageDirectory) {
+      int index = indexes.size();
+      indexes.put(packageDirectory, index);
+      lowLinks.put(packageDirectory, index);
+      stack.push(packageDirectory);
+      onStack.add(packageDirectory);
+
+      for (Path dependency : dependenciesByPackage.get(packageDirectory)) {
+        if (!indexes.containsKey(dependency)) {
+          visit(dependency);
+          lowLinks.put(packageDirectory, Math.min(lowLinks.get(packageDirectory), lowLinks.get(dependency)));
+        } else if (onStack.contains(dependency)) {
+          lowLinks.put(packageDirectory, Math.min(lowLinks.get(packageDirectory), indexes.get(dependency)));
+        }
+      }
+
+      if (lowLinks.get(packageDirectory) == index) {
+        Set<Path> component = new HashSet<>();
+        Path member;
+        do {
+          member = stack.pop();
+          onStack.remove(member);
+          component.add(member);
+        } while (!member.equals(packageDirectory));
+        components.add(component);
+      }
+    }
+  }
+}
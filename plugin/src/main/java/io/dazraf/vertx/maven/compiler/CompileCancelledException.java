@@ -0,0 +1,10 @@
+package io.dazraf.vertx.maven.compiler;
+
+/**
+ * Thrown when a compile is abandoned because the compiling thread was interrupted, e.g. because newer changes arrived
+ */
+public class CompileCancelledException extends Exception {
+  public CompileCancelledException() {
+    super("Compile cancelled");
+  }
+}
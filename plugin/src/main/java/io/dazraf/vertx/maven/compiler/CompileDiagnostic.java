@@ -0,0 +1,76 @@
+package io.dazraf.vertx.maven.compiler;
+
+import java.util.Objects;
+
+/**
+ * A single diagnostic reported by the compiler, either through maven or through the in-process compiler
+ */
+public class CompileDiagnostic {
+
+  public enum Severity {
+    ERROR,
+    WARNING
+  }
+
+  private final String file;
+  private final long line;
+  private final long column;
+  private final Severity severity;
+  private final String message;
+
+  public CompileDiagnostic(String file, long line, long column, Severity severity, String message) {
+    this.file = file;
+    this.line = line;
+    this.column = column;
+    this.severity = severity;
+    this.message = message;
+  }
+
+  /**
+   * @return the path of the source file, or an empty string if the diagnostic doesn't relate to a file
+   */
+  public String getFile() {
+    return file;
+  }
+
+  public long getLine() {
+    return line;
+  }
+
+  public long getColumn() {
+    return column;
+  }
+
+  public Severity getSeverity() {
+    return severity;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    CompileDiagnostic that = (CompileDiagnostic) o;
+    return line == that.line &&
+      column == that.column &&
+      severity == that.severity &&
+      Objects.equals(file, that.file) &&
+      Objects.equals(message, that.message);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(file, line, column, severity, message);
+  }
+
+  /**
+   * @return the diagnostic in the format used by the maven compiler plugin, e.g. {@code [ERROR] /src/App.java:[12,5] message}
+   */
+  @Override
+  public String toString() {
+    return "[" + severity + "] " + file + ":[" + line + "," + column + "] " + message;
+  }
+}
@@ -1,88 +1,281 @@
 package io.dazraf.vertx.maven.compiler;
 
+import io.dazraf.vertx.maven.reactor.Reactor;
+import io.dazraf.vertx.maven.reactor.ReactorModule;
 import org.apache.maven.model.Resource;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.shared.invoker.*;
+import org.codehaus.plexus.util.cli.CommandLineTimeOutException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import rx.Observable;
+import rx.subjects.PublishSubject;
+import rx.subjects.SerializedSubject;
+import rx.subjects.Subject;
 
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * This class represents the primary interaction with the Maven runtime to build the project
  */
-public class Compiler {
+public class Compiler implements Closeable {
   private static final Logger LOGGER = LoggerFactory.getLogger(Compiler.class);
-  private static final Pattern ERROR_PATTERN = Pattern.compile("\\[ERROR\\] [^:]+:\\[\\d+,\\d+\\].*");
-  private static final Pattern DEPENDENCY_RESOLUTION_PATTERN = Pattern.compile("^\\[INFO\\].*:compile:(.*)$");
-  private static final List<String> GOALS = Collections.singletonList("dependency:resolve compile");
+  private static final List<String> RESOLVE_AND_COMPILE_GOALS = Collections.singletonList("dependency:resolve compile");
+  private static final List<String> COMPILE_GOALS = Collections.singletonList("compile");
+  private static final String JAVA_EXTENSION = ".java";
+  private static final String PARALLEL_THREADS = "1C";
+  private static final String POM = "pom.xml";
   private final Properties compilerProperties = new Properties();
+  private final Optional<JavacCompiler> javacCompiler;
+  private final MavenBuildWorker buildWorker;
+  private final Optional<Reactor> reactor;
+  private final ClassPathCache classPathCache;
+  private final ResourceSync resourceSync;
+  private final Subject<CompileDiagnostic, CompileDiagnostic> errors = new SerializedSubject<>(PublishSubject.create());
 
   public Compiler() {
+    this(false);
+  }
+
+  public Compiler(boolean incremental) {
+    this(incremental, Optional.empty());
+  }
+
+  /**
+   * @param incremental when true, changes that only touch java sources are compiled in-process with javac,
+   *                    rather than forking a new maven build
+   * @param mavenDaemon optional path to a maven daemon executable (e.g. mvnd) used for full builds
+   */
+  public Compiler(boolean incremental, Optional<String> mavenDaemon) {
+    this(incremental, false, mavenDaemon, Optional.empty(), Optional.empty(), Collections.emptyList());
+  }
+
+  /**
+   * @param incremental when true, changes that only touch java sources are compiled in-process with javac,
+   *                    rather than forking a new maven build
+   * @param parallel when true, large in-process compiles are sharded along the package dependency graph and compiled
+   *                 concurrently
+   * @param mavenDaemon optional path to a maven daemon executable (e.g. mvnd) used for full builds
+   * @param embeddedMaven the maven running the plugin, used for full builds when there's no maven daemon
+   * @param reactor the reactor of the project, if it depends on other modules of a multi-module build
+   * @param sourceGeneratingResources patterns of the resources that sources are generated from, which need a full build
+   */
+  public Compiler(boolean incremental, boolean parallel, Optional<String> mavenDaemon,
+                  Optional<EmbeddedMaven> embeddedMaven, Optional<Reactor> reactor,
+                  List<String> sourceGeneratingResources) {
     compilerProperties.setProperty("outputAbsoluteArtifactFilename", "true");
+    this.javacCompiler = incremental ? createJavacCompiler(parallel, errors::onNext) : Optional.empty();
+    this.buildWorker = new MavenBuildWorker(mavenDaemon, embeddedMaven);
+    this.reactor = reactor;
+    this.resourceSync = new ResourceSync(sourceGeneratingResources);
+    this.classPathCache = new ClassPathCache(reactor
+      .map(r -> r.getUpstreamModules().stream().map(ReactorModule::getPomFile).collect(Collectors.toList()))
+      .orElse(Collections.emptyList()));
   }
 
+  /**
+   * @return the errors of each compile, as soon as they are reported and before the compile has finished
+   */
+  public Observable<CompileDiagnostic> errors() {
+    return errors.asObservable();
+  }
+
+  @Override
+  public void close() {
+    javacCompiler.ifPresent(JavacCompiler::close);
+  }
 
   /**
-   * Compile the maven project, returning the list of classpath paths as reported by maven
+   * Compile the maven project for a set of changed files.
+   * If incremental compilation is enabled, and all the changed files are java sources of the project, then only those
+   * sources are recompiled in-process, reusing the class path of the {@code previous} result.
+   * Changed resources, other than those that generate sources, are copied (and filtered) straight into the output
+   * directory.
+   * If the project is part of a reactor, and the changes are to upstream modules, then only the changed modules and
+   * those between them and the project are built.
+   * Otherwise (e.g. the pom has changed, or there is no previous result) this falls back to a full maven build.
+   *
+   * @param project the top level maven project
+   * @param changedPaths the files that have changed since the last compile
+   * @param previous the result of the last successful compile, or null if there hasn't been one
+   * @return the result of compilation containing the classpaths etc
+   * @throws CompilerException for any compiler errors
+   * @throws CompileCancelledException if the compiling thread is interrupted, which also stops any running maven build
+   * @throws MavenInvocationException for any unexpected maven invocation errors
+   */
+  public CompileResult compile(MavenProject project, Collection<Path> changedPaths, CompileResult previous) throws CompilerException, CompileCancelledException, MavenInvocationException {
+    if (previous != null && !changedPaths.isEmpty()) {
+      Map<Boolean, List<Path>> syncable = changedPaths.stream().collect(Collectors.partitioningBy(path -> resourceSync.canSync(project, path)));
+      List<Path> resources = syncable.get(true);
+      List<Path> others = syncable.get(false);
+      if (others.isEmpty() || (javacCompiler.isPresent() && isIncrementallyCompilable(project, others))) {
+        resourceSync.sync(project, resources);
+        if (others.isEmpty()) {
+          return new CompileResult(previous.getClassPath());
+        }
+        LOGGER.info("Compiling {} source(s) in-process", others.size());
+        return javacCompiler.get().compile(project, others, previous);
+      }
+    }
+    if (reactor.isPresent() && previous != null && !changedPaths.isEmpty() && !isPomChanged(changedPaths)) {
+      Set<ReactorModule> changedModules = changedPaths.stream()
+        .map(reactor.get()::moduleOf)
+        .filter(Optional::isPresent)
+        .map(Optional::get)
+        .collect(Collectors.toSet());
+      if (changedModules.stream().anyMatch(module -> module != reactor.get().getTarget())) {
+        return compileReactor(changedModules, previous);
+      }
+    }
+    return compile(project);
+  }
+
+  private CompileResult compileReactor(Set<ReactorModule> changedModules, CompileResult previous) throws CompilerException, CompileCancelledException, MavenInvocationException {
+    List<String> modules = reactor.get().buildSet(changedModules);
+    LOGGER.info("Building reactor modules {}", modules);
+
+    BuildOutputParser parser = new BuildOutputParser(false, Optional.empty(), errors::onNext);
+    InvocationRequest request = new DefaultInvocationRequest();
+    request.setPomFile(reactor.get().getRootPom().toFile());
+    request.setProjects(modules);
+    // the unchanged modules that these depend upon are in the reactor too (and up to date), rather than resolved from
+    // the local repository, where they may be stale or missing
+    request.setAlsoMake(true);
+    request.setThreads(PARALLEL_THREADS);
+    request.setOutputHandler(parser);
+    request.setGoals(COMPILE_GOALS);
+    request.setProperties(compilerProperties);
+
+    execute(request, parser);
+    javacCompiler.ifPresent(JavacCompiler::invalidate);
+    // the upstream modules are on the class path as directories, so the class path itself is unchanged
+    return new CompileResult(previous.getClassPath());
+  }
+
+
+  /**
+   * Compile the maven project, returning the list of classpath paths as reported by maven.
+   * The dependency class path is only resolved by maven if the dependencies have changed since the last resolution,
+   * otherwise the cached class path is used and only the {@code compile} goal is run.
    *
    * @param project This is the top level maven project that was provided by the maven run time when the plugin
    *                was invoked
    * @return the result of compilation containing the classpaths etc
    * @throws CompilerException for any compiler errors
+   * @throws CompileCancelledException if the compiling thread is interrupted, which also stops any running maven build
    * @throws MavenInvocationException for any unexpected maven invocation errors
    */
-  public CompileResult compile(MavenProject project) throws CompilerException, MavenInvocationException {
+  public CompileResult compile(MavenProject project) throws CompilerException, CompileCancelledException, MavenInvocationException {
+    Optional<List<String>> cachedDependencies = classPathCache.load(project);
+    boolean resolveDependencies = !cachedDependencies.isPresent();
+
+    BuildOutputParser parser = new BuildOutputParser(resolveDependencies, reactor.map(r -> r.getTarget().getArtifactId()), errors::onNext);
+    InvocationRequest request = setupInvocationRequest(project, resolveDependencies, parser);
+
+    execute(request, parser);
+    javacCompiler.ifPresent(JavacCompiler::invalidate);
+    List<String> dependencies = cachedDependencies.orElseGet(() -> reactor
+      .map(r -> r.replaceInstalledArtifacts(parser.getDependencies()))
+      .orElse(parser.getDependencies()));
+    if (resolveDependencies) {
+      classPathCache.save(project, dependencies);
+    }
+    return new CompileResult(classPath(project, dependencies));
+  }
+
+  /**
+   * Restore the result of the last full build without running maven, e.g. at the start of a new session when the
+   * outputs of the last session are still current
+   *
+   * @param project the top level maven project
+   * @return the result, if the dependency class path of the last full build is still current
+   */
+  public Optional<CompileResult> restore(MavenProject project) {
+    return classPathCache.load(project).map(dependencies -> new CompileResult(classPath(project, dependencies)));
+  }
 
+  private List<String> classPath(MavenProject project, List<String> dependencies) {
     List<String> classPath = new ArrayList<>();
     // precendence to load from the resources folders rather than the build
     project.getResources().stream().map(Resource::getDirectory).forEach(classPath::add);
     classPath.add(project.getBuild().getOutputDirectory());
-
-    Set<String> messages = new HashSet<>();
-    InvocationRequest request = setupInvocationRequest(project, classPath, messages);
-
-    return execute(request, messages, classPath);
+    classPath.addAll(dependencies);
+    return classPath;
   }
 
-  private CompileResult execute(InvocationRequest request, Set<String> messages, List<String> classPath) throws CompilerException, MavenInvocationException  {
+  private void execute(InvocationRequest request, BuildOutputParser parser) throws CompilerException, CompileCancelledException, MavenInvocationException {
     try {
-      InvocationResult result = new DefaultInvoker().execute(request);
+      InvocationResult result = buildWorker.execute(request);
 
+      // an interrupt makes the invoker destroy the maven process, so whatever it has written is incomplete
+      if (isCancelled(result.getExecutionException())) {
+        LOGGER.info("Maven build cancelled");
+        javacCompiler.ifPresent(JavacCompiler::invalidate);
+        throw new CompileCancelledException();
+      }
       if (result.getExitCode() != 0) {
         LOGGER.error("Error with exit code {}", result.getExitCode());
-        throw new CompilerException(result.getExitCode(), messages);
+        parser.getDiagnostics().forEach(diagnostic -> LOGGER.error("{}", diagnostic));
+        throw new CompilerException(result.getExitCode(), parser.getDiagnostics());
       }
-      return new CompileResult(classPath);
     } catch (MavenInvocationException e) {
+      if (isCancelled(e.getCause())) {
+        throw new CompileCancelledException();
+      }
       LOGGER.error("Maven invocation exception:", e);
       throw e;
     }
   }
 
-  private InvocationRequest setupInvocationRequest(MavenProject project, List<String> classPath, Set<String> messages) {
+  private InvocationRequest setupInvocationRequest(MavenProject project, boolean resolveDependencies, BuildOutputParser parser) {
     InvocationRequest request = new DefaultInvocationRequest();
-    request.setPomFile(project.getFile());
+    if (reactor.isPresent()) {
+      // build the project along with the upstream modules of the reactor that it depends upon
+      request.setPomFile(reactor.get().getRootPom().toFile());
+      request.setProjects(Collections.singletonList(reactor.get().getTarget().getId()));
+      request.setAlsoMake(true);
+      request.setThreads(PARALLEL_THREADS);
+    } else {
+      request.setPomFile(project.getFile());
+    }
 
-    request.setOutputHandler(msg -> collectResults(msg, messages, classPath));
+    request.setOutputHandler(parser);
 
-    request.setGoals(GOALS);
+    request.setGoals(resolveDependencies ? RESOLVE_AND_COMPILE_GOALS : COMPILE_GOALS);
     request.setProperties(compilerProperties);
     return request;
   }
 
-  private void collectResults(String msg, Set<String> messages, List<String> classPath) {
-    Matcher matcher = DEPENDENCY_RESOLUTION_PATTERN.matcher(msg);
-    if (matcher.matches()) {
-      String dependency = matcher.group(1);
-      classPath.add(dependency);
-    } else if (ERROR_PATTERN.matcher(msg).matches()) {
-      System.out.println(msg);
-      messages.add(msg);
-    } else {
-      LOGGER.trace("> {}", msg);
+  private boolean isIncrementallyCompilable(MavenProject project, Collection<Path> changedPaths) {
+    if (changedPaths.isEmpty()) {
+      return false;
+    }
+    List<Path> sourceRoots = project.getCompileSourceRoots().stream().map(Paths::get).collect(Collectors.toList());
+    return changedPaths.stream().allMatch(path ->
+      path.toString().endsWith(JAVA_EXTENSION) && sourceRoots.stream().anyMatch(path::startsWith));
+  }
+
+  // the interrupt flag is consumed when the invoker's wait for the maven process is interrupted, leaving a time out
+  // exception in its place - we never set a time out, so that can only mean an interrupt
+  private static boolean isCancelled(Throwable executionException) {
+    return Thread.interrupted() || executionException instanceof CommandLineTimeOutException;
+  }
+
+  private boolean isPomChanged(Collection<Path> changedPaths) {
+    return changedPaths.stream().anyMatch(path -> path.getFileName() != null && path.getFileName().toString().equals(POM));
+  }
+
+  private static Optional<JavacCompiler> createJavacCompiler(boolean parallel, Consumer<CompileDiagnostic> errorListener) {
+    JavacCompiler result = new JavacCompiler(parallel, errorListener);
+    if (!result.isAvailable()) {
+      LOGGER.warn("No system java compiler available - is this a JRE? Falling back to maven for all compiles");
+      return Optional.empty();
     }
+    return Optional.of(result);
   }
 }
@@ -4,18 +4,25 @@ import java.util.Collection;
 import java.util.stream.Collectors;
 
 public class CompilerException extends Exception {
-  private final Collection<String> messages;
+  private final Collection<CompileDiagnostic> diagnostics;
   private final int exitCode;
 
-  public CompilerException(int exitCode, Collection<String> messages) {
+  public CompilerException(int exitCode, Collection<CompileDiagnostic> diagnostics) {
     super("Compiler failed with exit code: " + exitCode + "\n" +
-      messages.stream().collect(Collectors.joining("\n\n")));
+      diagnostics.stream().map(CompileDiagnostic::toString).collect(Collectors.joining("\n\n")));
     this.exitCode = exitCode;
-    this.messages = messages;
+    this.diagnostics = diagnostics;
   }
 
+  /**
+   * @return the diagnostics formatted as they are by the maven compiler plugin
+   */
   public Collection<String> getMessages() {
-    return messages;
+    return diagnostics.stream().map(CompileDiagnostic::toString).collect(Collectors.toList());
+  }
+
+  public Collection<CompileDiagnostic> getDiagnostics() {
+    return diagnostics;
   }
 
   public int getExitCode() {
@@ -0,0 +1,155 @@
+package io.dazraf.vertx.maven.compiler;
+
+import org.apache.maven.Maven;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.execution.AbstractExecutionListener;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenExecutionResult;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.invoker.InvocationOutputHandler;
+import org.apache.maven.shared.invoker.InvocationRequest;
+import org.apache.maven.shared.invoker.InvocationResult;
+import org.codehaus.plexus.util.cli.CommandLineTimeOutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Runs maven builds in the JVM of the maven that is running the plugin, through that maven's own {@link Maven}
+ * component. The container - with its plugin realms, project realms and the artifacts it has resolved - stays loaded
+ * between builds, so each build starts warm, rather than in a cold maven JVM that has to load them all again.
+ *
+ * The output of a build goes to maven's own console. Its results are reported to the output handler of the request as
+ * the lines that a forked maven would print for them - the compile errors, and the compile scope dependencies of each
+ * project - so that they are parsed in the same way.
+ *
+ * A running build can't be stopped part way through, so a cancelled build runs to completion and is then reported as
+ * cancelled.
+ */
+public class EmbeddedMaven {
+  private static final Logger LOGGER = LoggerFactory.getLogger(EmbeddedMaven.class);
+  private static final String MULTITHREADED_BUILDER = "multithreaded";
+  private final Maven maven;
+  private final MavenExecutionRequest sessionRequest;
+
+  /**
+   * @param maven the maven that is running the plugin
+   * @param sessionRequest the request of the running session, whose settings, repositories and properties each build
+   *                       starts from
+   */
+  public EmbeddedMaven(Maven maven, MavenExecutionRequest sessionRequest) {
+    this.maven = maven;
+    this.sessionRequest = sessionRequest;
+  }
+
+  InvocationResult execute(InvocationRequest request) {
+    InvocationOutputHandler output = request.getOutputHandler(line -> {});
+    MavenExecutionResult result = maven.execute(createExecutionRequest(request, output));
+    if (Thread.currentThread().isInterrupted()) {
+      // as with the invoker, a cancelled build is reported as having timed out
+      return new MavenBuildWorker.Result(-1, new CommandLineTimeOutException("embedded maven build cancelled"));
+    }
+    if (result.hasExceptions()) {
+      result.getExceptions().forEach(exception -> reportFailure(exception, output));
+      return new MavenBuildWorker.Result(1, null);
+    }
+    result.getTopologicallySortedProjects().forEach(project -> reportDependencies(project, output));
+    return new MavenBuildWorker.Result(0, null);
+  }
+
+  private MavenExecutionRequest createExecutionRequest(InvocationRequest request, InvocationOutputHandler output) {
+    Properties userProperties = new Properties();
+    userProperties.putAll(sessionRequest.getUserProperties());
+    if (request.getProperties() != null) {
+      userProperties.putAll(request.getProperties());
+    }
+    List<String> goals = new ArrayList<>();
+    request.getGoals().forEach(goal -> goals.addAll(Arrays.asList(goal.trim().split("\\s+"))));
+
+    MavenExecutionRequest executionRequest = DefaultMavenExecutionRequest.copy(sessionRequest)
+      .setPom(request.getPomFile())
+      .setBaseDirectory(request.getPomFile().getParentFile())
+      .setGoals(goals)
+      .setSelectedProjects(request.getProjects() != null ? request.getProjects() : Collections.emptyList())
+      .setExcludedProjects(Collections.emptyList())
+      .setResumeFrom(null)
+      .setMakeBehavior(request.isAlsoMake() ? MavenExecutionRequest.REACTOR_MAKE_UPSTREAM : null)
+      .setRecursive(true)
+      .setProjectPresent(true)
+      .setStartTime(new Date())
+      .setUserProperties(userProperties)
+      .setExecutionListener(new FailureListener(output));
+    int threads = threadsOf(request.getThreads());
+    executionRequest.setDegreeOfConcurrency(threads);
+    if (threads > 1) {
+      executionRequest.setBuilderId(MULTITHREADED_BUILDER);
+    }
+    return executionRequest;
+  }
+
+  // maven's --threads, e.g. "4" or "1C" for one per core
+  static int threadsOf(String threads) {
+    if (threads == null || threads.isEmpty()) {
+      return 1;
+    }
+    try {
+      if (threads.endsWith("C")) {
+        float perCore = Float.parseFloat(threads.substring(0, threads.length() - 1));
+        return Math.max(1, (int) (perCore * Runtime.getRuntime().availableProcessors()));
+      }
+      return Math.max(1, Integer.parseInt(threads));
+    } catch (NumberFormatException e) {
+      LOGGER.warn("invalid thread count {} - building with one thread", threads);
+      return 1;
+    }
+  }
+
+  // the messages of a failure, as "[ERROR] <file>:[<line>,<column>] <message>" for compile errors
+  private static void reportFailure(Throwable failure, InvocationOutputHandler output) {
+    for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+      String message = cause instanceof MojoFailureException && ((MojoFailureException) cause).getLongMessage() != null
+        ? ((MojoFailureException) cause).getLongMessage()
+        : cause.getMessage();
+      if (message != null) {
+        for (String line : message.split("\\r?\\n")) {
+          output.consumeLine("[ERROR] " + line);
+        }
+      }
+    }
+  }
+
+  // the compile scope dependencies of a project, as dependency:resolve prints them
+  private static void reportDependencies(MavenProject project, InvocationOutputHandler output) {
+    output.consumeLine("[INFO] --- dependencies @ " + project.getArtifactId() + " ---");
+    for (Artifact artifact : project.getArtifacts()) {
+      if (Artifact.SCOPE_COMPILE.equals(artifact.getScope()) && artifact.getFile() != null) {
+        output.consumeLine("[INFO]    " + artifact.getId() + ":" + artifact.getScope() + ":" + artifact.getFile().getAbsolutePath());
+      }
+    }
+  }
+
+  // reports the errors of a failed mojo (e.g. the compiler's) as soon as it fails, rather than at the end of the build
+  private static class FailureListener extends AbstractExecutionListener {
+    private final InvocationOutputHandler output;
+
+    FailureListener(InvocationOutputHandler output) {
+      this.output = output;
+    }
+
+    @Override
+    public void mojoFailed(ExecutionEvent event) {
+      if (event.getException() != null) {
+        reportFailure(event.getException(), output);
+      }
+    }
+  }
+}
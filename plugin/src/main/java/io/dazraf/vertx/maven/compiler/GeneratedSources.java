@@ -0,0 +1,89 @@
+package io.dazraf.vertx.maven.compiler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * The files that annotation processors have generated, and the sources that each was generated from (the source
+ * files of the originating elements that the processor declared for it).
+ *
+ * A file generated from a single source is regenerated whenever that source is recompiled, and is stale if the
+ * recompiled source no longer generates it. A file generated from several sources (by an aggregating processor) can
+ * only be regenerated correctly by compiling all of them together, so a change to any one of them widens the compile
+ * to all of them. A file whose processor declared no originating elements can't be tracked, and is left alone.
+ */
+class GeneratedSources {
+  private static final Logger LOGGER = LoggerFactory.getLogger(GeneratedSources.class);
+  private final Map<Path, Set<Path>> originsByGenerated = new HashMap<>();
+
+  /**
+   * @param generated a generated file
+   * @return true if the origins of the file are being tracked
+   */
+  boolean isTracked(Path generated) {
+    return originsByGenerated.containsKey(generated);
+  }
+
+  /**
+   * @param sources a set of sources
+   * @return true if any of the sources contributes to an aggregated file, and so the set can't be split up
+   */
+  boolean isAggregating(Collection<Path> sources) {
+    return originsByGenerated.values().stream()
+      .anyMatch(origins -> origins.size() > 1 && !Collections.disjoint(origins, sources));
+  }
+
+  /**
+   * Expand a set of sources to compile: any aggregated file that they contribute to brings in all of its other
+   * sources, and the files generated from the sources are dropped, as they will be regenerated
+   *
+   * @param sources the sources to compile
+   * @return the sources to compile, along with any required to regenerate their aggregated files
+   */
+  Set<Path> expand(Collection<Path> sources) {
+    Set<Path> expanded = new HashSet<>(sources);
+    boolean grown = true;
+    while (grown) {
+      grown = false;
+      for (Set<Path> origins : originsByGenerated.values()) {
+        if (origins.size() > 1 && !Collections.disjoint(origins, expanded)) {
+          grown |= expanded.addAll(origins);
+        }
+      }
+    }
+    expanded.removeIf(path -> {
+      Set<Path> origins = originsByGenerated.get(path);
+      return origins != null && !Collections.disjoint(origins, expanded);
+    });
+    return expanded;
+  }
+
+  /**
+   * Record the files generated by a compile
+   *
+   * @param sources the sources that were compiled, or deleted
+   * @param generated each file generated by the compile, and the sources that it was generated from
+   * @return the files previously generated from the sources that have not been generated again, and so are stale
+   */
+  Set<Path> update(Collection<Path> sources, Map<Path, Set<Path>> generated) {
+    Set<Path> stale = new HashSet<>();
+    originsByGenerated.forEach((file, origins) -> {
+      if (!generated.containsKey(file) && sources.containsAll(origins)) {
+        stale.add(file);
+      }
+    });
+    stale.forEach(originsByGenerated::remove);
+    generated.forEach((file, origins) -> {
+      if (origins.isEmpty()) {
+        LOGGER.debug("{} was generated without any originating elements, so can't be kept up to date", file);
+        originsByGenerated.remove(file);
+      } else {
+        originsByGenerated.put(file, new HashSet<>(origins));
+      }
+    });
+    return stale;
+  }
+}
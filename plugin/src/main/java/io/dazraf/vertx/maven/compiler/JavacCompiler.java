@@ -0,0 +1,593 @@
+package io.dazraf.vertx.maven.compiler;
+
+import org.apache.maven.project.MavenProject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.processing.Processor;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.*;
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * An in-process compile engine built on {@link JavaCompiler}.
+ * It recompiles the given source files against the class path of a previous {@link CompileResult},
+ * writing the classes straight into the project's output directory.
+ *
+ * A {@link ClassDependencyIndex} of the output directory is kept between compiles. If the public ABI of a recompiled
+ * class changes, or a class is removed, then the sources that refer to it or to any of its subtypes are recompiled
+ * too, until no further ABI changes occur.
+ *
+ * Optionally, large rounds are split into {@link CompilationShards} which are compiled concurrently on a fork/join
+ * pool, each into its own directory, and then merged into the output directory.
+ *
+ * Annotation processors found on the class path run over the recompiled sources only, writing their sources to
+ * {@code target/generated-sources/annotations} as the maven compiler plugin does. The files that they generate are
+ * tracked by {@link GeneratedSources}, so that files which are still valid are reused, and stale ones are removed.
+ */
+class JavacCompiler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(JavacCompiler.class);
+  private static final String CLASS_EXTENSION = ".class";
+  private static final String SHARDS_DIRECTORY = "vertx-hot/shards";
+  private static final String GENERATED_SOURCES_DIRECTORY = "generated-sources/annotations";
+  // rounds smaller than this aren't worth sharding
+  private static final int PARALLEL_THRESHOLD = 100;
+  private final JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+  private final ClassDependencyIndex index = new ClassDependencyIndex();
+  private final GeneratedSources generatedSources = new GeneratedSources();
+  // sources whose last compile failed or was cancelled, and so are retried on the next compile
+  private final Set<Path> staleSources = new HashSet<>();
+  private final boolean parallel;
+  private final ForkJoinPool pool;
+  private final Consumer<CompileDiagnostic> errorListener;
+  private List<String> processorClassPath = Collections.emptyList();
+  private URLClassLoader processorClassLoader;
+
+  /**
+   * @param parallel when true, large rounds of sources are split into shards along the package dependency graph and
+   *                 compiled concurrently
+   * @param errorListener called with each error as soon as javac reports it
+   */
+  JavacCompiler(boolean parallel, Consumer<CompileDiagnostic> errorListener) {
+    this.parallel = parallel;
+    this.errorListener = errorListener;
+    this.pool = parallel ? new ForkJoinPool(Runtime.getRuntime().availableProcessors()) : null;
+  }
+
+  /**
+   * @return true if a system java compiler is available in this JVM (i.e. we are running on a JDK, not a JRE)
+   */
+  boolean isAvailable() {
+    return javac != null;
+  }
+
+  /**
+   * Stop the shard pool, and release the annotation processor class loader
+   */
+  synchronized void close() {
+    if (pool != null) {
+      pool.shutdownNow();
+    }
+    closeProcessorClassLoader();
+  }
+
+  /**
+   * Discard the class dependency index, e.g. after the output directory has been rebuilt by maven.
+   * It is lazily rebuilt on the next compile. The generated sources are still tracked, as maven generates the same
+   * files from the same sources.
+   */
+  synchronized void invalidate() {
+    index.clear();
+    staleSources.clear();
+  }
+
+  /**
+   * Compile the given set of changed sources, and any sources affected by ABI changes in them
+   *
+   * @param project the maven project that owns the sources
+   * @param changedPaths the source files that have been changed, added or deleted
+   * @param previous the result of the last full compile, used for its class path
+   * @return the compile result, sharing the class path of {@code previous}
+   * @throws CompilerException if javac reports any errors
+   * @throws CompileCancelledException if the compiling thread is interrupted
+   */
+  synchronized CompileResult compile(MavenProject project, Collection<Path> changedPaths, CompileResult previous) throws CompilerException, CompileCancelledException {
+    Path outputDirectory = Paths.get(project.getBuild().getOutputDirectory());
+    if (index.isEmpty()) {
+      index.rebuild(outputDirectory, sourceRoots(project));
+    }
+    prepareAnnotationProcessing(project, previous);
+
+    Set<Path> changed = changedPaths.stream().map(JavacCompiler::normalize).collect(toSet());
+    changed.addAll(staleSources);
+    Set<Path> deletedSources = changed.stream().filter(path -> !Files.exists(path)).collect(toSet());
+    Set<String> removedClasses = new HashSet<>();
+    deletedSources.forEach(deleted -> {
+      Set<String> removed = index.remove(deleted);
+      deleteClassFiles(outputDirectory, removed);
+      removedClasses.addAll(removed);
+    });
+    removedClasses.addAll(deleteGenerated(outputDirectory, generatedSources.update(deletedSources, Collections.emptyMap())));
+
+    Set<Path> compiled = new HashSet<>();
+    Set<Path> pending = existing(generatedSources.expand(changed));
+    pending.addAll(existing(index.dependentSources(removedClasses)));
+    boolean recompiledAll = false;
+
+    while (!pending.isEmpty()) {
+      pending = existing(generatedSources.expand(pending));
+      Map<Path, Set<Path>> generated = new ConcurrentHashMap<>();
+      Map<Path, List<ClassFile>> outputs = compileRound(project, pending, previous, outputDirectory, generated);
+      compiled.addAll(pending);
+      compiled.addAll(outputs.keySet());
+
+      // an aggregated file that we've not seen before may have been generated from only some of its sources
+      boolean newAggregate = generated.entrySet().stream()
+        .anyMatch(entry -> entry.getValue().size() > 1 && !generatedSources.isTracked(entry.getKey()));
+      Set<String> abiChanges = new HashSet<>(deleteGenerated(outputDirectory, generatedSources.update(pending, generated)));
+      Set<Path> roundSources = new HashSet<>(pending);
+      roundSources.addAll(outputs.keySet());
+      boolean constantsChanged = false;
+      for (Path source : roundSources) {
+        Map<String, ClassFile> before = index.classesOf(source).stream().collect(toMap(ClassFile::getClassName, c -> c));
+        List<ClassFile> after = outputs.getOrDefault(source, Collections.emptyList());
+        Set<String> removed = index.update(source, after);
+        deleteClassFiles(outputDirectory, removed);
+        abiChanges.addAll(removed);
+        for (ClassFile classFile : after) {
+          ClassFile old = before.get(classFile.getClassName());
+          if (old == null || !old.getAbiDigest().equals(classFile.getAbiDigest())) {
+            abiChanges.add(classFile.getClassName());
+          }
+          constantsChanged |= old != null && !old.getConstantsDigest().equals(classFile.getConstantsDigest());
+        }
+      }
+
+      if (newAggregate && !recompiledAll) {
+        // the aggregated file can only be generated correctly from all of the sources at once
+        LOGGER.info("annotation processors generated an aggregated file - recompiling all sources");
+        recompiledAll = true;
+        pending = existing(index.sources());
+        continue;
+      }
+      if (constantsChanged) {
+        // constants are inlined by javac, so we can't tell who uses them - recompile everything that's left
+        LOGGER.info("compile time constants changed");
+        pending = new HashSet<>(index.sources());
+      } else {
+        // a subtype inherits the change without its own ABI changing, so its users are affected too
+        pending = index.dependentSources(index.withSubtypes(abiChanges));
+      }
+      pending = existing(pending);
+      pending.removeAll(compiled);
+    }
+
+    LOGGER.info("Recompiled {} of {} sources", compiled.size(), index.sourceCount());
+    return new CompileResult(previous.getClassPath());
+  }
+
+  private Map<Path, List<ClassFile>> compileRound(MavenProject project, Set<Path> sources, CompileResult previous, Path outputDirectory,
+                                                  Map<Path, Set<Path>> generated) throws CompilerException, CompileCancelledException {
+    Map<Path, List<String>> classNamesBySource;
+    // the sources of an aggregated file must be processed together, so can't be sharded
+    if (parallel && sources.size() >= PARALLEL_THRESHOLD && !generatedSources.isAggregating(sources)) {
+      classNamesBySource = compileShards(project, sources, previous, outputDirectory, generated);
+    } else {
+      Thread thread = Thread.currentThread();
+      try {
+        classNamesBySource = compileUnit(project, sources, previous, outputDirectory, generated, thread::isInterrupted);
+      } catch (CompileCancelledException e) {
+        // the index still holds the classes from before this round, so retrying these sources is enough
+        staleSources.addAll(sources);
+        Thread.interrupted();
+        throw e;
+      } catch (CompilerException e) {
+        staleSources.addAll(sources);
+        throw e;
+      }
+      staleSources.removeAll(sources);
+    }
+
+    Map<Path, List<ClassFile>> result = new HashMap<>();
+    for (Map.Entry<Path, List<String>> entry : classNamesBySource.entrySet()) {
+      List<ClassFile> classFiles = new ArrayList<>();
+      for (String className : entry.getValue()) {
+        try {
+          classFiles.add(ClassFile.read(classFilePath(outputDirectory, className)));
+        } catch (IOException e) {
+          LOGGER.warn("unable to read class {}", className, e);
+        }
+      }
+      result.put(entry.getKey(), classFiles);
+    }
+    return result;
+  }
+
+  // compiles the sources in shards, wave by wave, each shard into its own directory which is then merged into the output
+  private Map<Path, List<String>> compileShards(MavenProject project, Set<Path> sources, CompileResult previous, Path outputDirectory,
+                                                Map<Path, Set<Path>> generated) throws CompilerException, CompileCancelledException {
+    long startTime = System.nanoTime();
+    int parallelism = pool.getParallelism();
+    List<List<Set<Path>>> waves = CompilationShards.plan(sources, index, parallelism);
+    AtomicBoolean cancelled = new AtomicBoolean();
+    AtomicLong compileNanos = new AtomicLong();
+    Map<Path, List<String>> classNamesBySource = new HashMap<>();
+    Path shardsDirectory = ClassPathCache.buildDirectory(project).resolve(SHARDS_DIRECTORY);
+    int shardCount = 0;
+
+    try {
+      for (List<Set<Path>> wave : waves) {
+        shardCount += wave.size();
+        List<Shard> shards = new ArrayList<>();
+        for (Set<Path> shardSources : wave) {
+          Files.createDirectories(shardsDirectory);
+          shards.add(new Shard(shardSources, Files.createTempDirectory(shardsDirectory, "shard")));
+        }
+        List<ForkJoinTask<Map<Path, List<String>>>> tasks = shards.stream()
+          .map(shard -> pool.submit(() -> {
+            long shardStartTime = System.nanoTime();
+            try {
+              return compileUnit(project, shard.sources, previous, shard.outputDirectory, generated, cancelled::get);
+            } finally {
+              compileNanos.addAndGet(System.nanoTime() - shardStartTime);
+            }
+          }))
+          .collect(toList());
+
+        List<CompileDiagnostic> errors = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+          try {
+            Map<Path, List<String>> shardClassNames = tasks.get(i).get();
+            mergeShard(shards.get(i).outputDirectory, outputDirectory, shardClassNames);
+            classNamesBySource.putAll(shardClassNames);
+          } catch (InterruptedException e) {
+            cancelled.set(true);
+            tasks.forEach(ForkJoinTask::quietlyJoin);
+            throw new CompileCancelledException();
+          } catch (ExecutionException e) {
+            if (e.getCause() instanceof CompilerException) {
+              errors.addAll(((CompilerException) e.getCause()).getDiagnostics());
+            } else if (e.getCause() instanceof CompileCancelledException) {
+              throw (CompileCancelledException) e.getCause();
+            } else {
+              throw new CompilerException(1, Collections.singletonList(
+                new CompileDiagnostic("", 0, 0, CompileDiagnostic.Severity.ERROR, String.valueOf(e.getCause()))));
+            }
+          }
+        }
+        if (!errors.isEmpty()) {
+          // the later waves depend on this one, so there's no point in compiling them
+          throw new CompilerException(1, errors);
+        }
+      }
+    } catch (IOException e) {
+      throw new CompilerException(1, Collections.singletonList(
+        new CompileDiagnostic("", 0, 0, CompileDiagnostic.Severity.ERROR, e.getMessage())));
+    } catch (CompilerException | CompileCancelledException e) {
+      staleSources.addAll(sources);
+      throw e;
+    } finally {
+      deleteDirectory(shardsDirectory);
+    }
+    staleSources.removeAll(sources);
+
+    long wallNanos = System.nanoTime() - startTime;
+    LOGGER.info("Compiled {} in parallel: {}", sources.size() + " sources", String.format(
+      "%d shard(s) in %d wave(s) on %d threads, %1.3fs compiling in %1.3fs, %1.2fx speedup",
+      shardCount, waves.size(), parallelism, compileNanos.get() * 1E-9, wallNanos * 1E-9, (double) compileNanos.get() / wallNanos));
+    return classNamesBySource;
+  }
+
+  private void mergeShard(Path shardDirectory, Path outputDirectory, Map<Path, List<String>> classNamesBySource) throws IOException {
+    for (List<String> classNames : classNamesBySource.values()) {
+      for (String className : classNames) {
+        Path target = classFilePath(outputDirectory, className);
+        Files.createDirectories(target.getParent());
+        Files.move(classFilePath(shardDirectory, className), target, StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+  }
+
+  // compiles a set of sources with a single javac task, returning the classes written for each source
+  private Map<Path, List<String>> compileUnit(MavenProject project, Set<Path> sources, CompileResult previous, Path outputDirectory,
+                                              Map<Path, Set<Path>> generated, BooleanSupplier cancelled) throws CompilerException, CompileCancelledException {
+    List<File> files = sources.stream().map(Path::toFile).collect(toList());
+    Map<Path, List<String>> classNamesBySource = new HashMap<>();
+
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    StandardJavaFileManager standardFileManager = javac.getStandardFileManager(diagnostics, null, null);
+    try (JavaFileManager fileManager = new RecordingFileManager(standardFileManager, classNamesBySource, cancelled)) {
+      Iterable<? extends JavaFileObject> compilationUnits = standardFileManager.getJavaFileObjectsFromFiles(files);
+      List<String> options = createOptions(project, previous, outputDirectory);
+      LOGGER.debug("javac {} for {} file(s)", options, files.size());
+
+      boolean success;
+      try {
+        DiagnosticListener<JavaFileObject> listener = diagnostic -> {
+          diagnostics.report(diagnostic);
+          if (diagnostic.getKind() == Diagnostic.Kind.ERROR && !cancelled.getAsBoolean()) {
+            errorListener.accept(toCompileDiagnostic(diagnostic));
+          }
+        };
+        JavaCompiler.CompilationTask task = javac.getTask(null, fileManager, listener, options, null, compilationUnits);
+        if (processorClassLoader != null) {
+          task.setProcessors(loadProcessors(sourceRoots(project), generated));
+        }
+        success = task.call();
+      } catch (RuntimeException e) {
+        if (!cancelled.getAsBoolean()) {
+          throw e;
+        }
+        throw new CompileCancelledException();
+      }
+      if (!success) {
+        // a cancelled compile can also end in errors, e.g. when javac reports the cancellation as a failure to read or
+        // write a file, which are no concern of the next compile
+        if (cancelled.getAsBoolean()) {
+          throw new CompileCancelledException();
+        }
+        List<CompileDiagnostic> errors = diagnostics.getDiagnostics().stream()
+          .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+          .map(JavacCompiler::toCompileDiagnostic)
+          .collect(toList());
+        errors.forEach(error -> LOGGER.error("{}", error));
+        throw new CompilerException(1, errors);
+      }
+    } catch (IOException e) {
+      throw new CompilerException(1, Collections.singletonList(
+        new CompileDiagnostic("", 0, 0, CompileDiagnostic.Severity.ERROR, e.getMessage())));
+    }
+    return classNamesBySource;
+  }
+
+  private List<String> createOptions(MavenProject project, CompileResult previous, Path outputDirectory) {
+    List<String> options = new ArrayList<>();
+    options.add("-g");
+    options.add("-implicit:none");
+    options.add("-d");
+    options.add(outputDirectory.toString());
+    options.add("-s");
+    options.add(generatedSourcesDirectory(project).toString());
+    if (processorClassLoader == null) {
+      options.add("-proc:none");
+    }
+    options.add("-classpath");
+    options.add(previous.getClassPath().stream().collect(joining(File.pathSeparator)));
+    options.add("-sourcepath");
+    options.add(project.getCompileSourceRoots().stream().collect(joining(File.pathSeparator)));
+    addPropertyOption(project, options, "-encoding", "project.build.sourceEncoding");
+    addPropertyOption(project, options, "-source", "maven.compiler.source");
+    addPropertyOption(project, options, "-target", "maven.compiler.target");
+    return options;
+  }
+
+  // (re)creates the class loader for the annotation processors on the class path, unless processing is disabled
+  private void prepareAnnotationProcessing(MavenProject project, CompileResult previous) throws CompilerException {
+    try {
+      Files.createDirectories(generatedSourcesDirectory(project));
+    } catch (IOException e) {
+      throw new CompilerException(1, Collections.singletonList(
+        new CompileDiagnostic("", 0, 0, CompileDiagnostic.Severity.ERROR, e.getMessage())));
+    }
+    if (processorClassLoader != null && processorClassPath.equals(previous.getClassPath())) {
+      return;
+    }
+    closeProcessorClassLoader();
+    if ("none".equals(project.getProperties().getProperty("maven.compiler.proc"))) {
+      return;
+    }
+    List<URL> urls = new ArrayList<>();
+    for (String entry : previous.getClassPath()) {
+      try {
+        urls.add(new File(entry).toURI().toURL());
+      } catch (MalformedURLException e) {
+        LOGGER.warn("unable to add {} to the annotation processor path", entry, e);
+      }
+    }
+    processorClassPath = previous.getClassPath();
+    processorClassLoader = new URLClassLoader(urls.toArray(new URL[urls.size()]), javac.getClass().getClassLoader());
+  }
+
+  private void closeProcessorClassLoader() {
+    if (processorClassLoader != null) {
+      try {
+        processorClassLoader.close();
+      } catch (IOException e) {
+        LOGGER.debug("unable to close the annotation processor class loader", e);
+      }
+      processorClassLoader = null;
+    }
+  }
+
+  // processors keep state between rounds, so each javac task needs its own instances
+  private List<Processor> loadProcessors(List<Path> sourceRoots, Map<Path, Set<Path>> generated) {
+    List<Processor> processors = new ArrayList<>();
+    try {
+      for (Processor processor : ServiceLoader.load(Processor.class, processorClassLoader)) {
+        processors.add(new TrackingProcessor(processor, element -> sourceOf(element, sourceRoots), generated::put));
+      }
+    } catch (ServiceConfigurationError e) {
+      LOGGER.warn("unable to load annotation processors", e);
+    }
+    return processors;
+  }
+
+  // the source file of the top level type (or package-info) that encloses an element
+  private Optional<Path> sourceOf(Element element, List<Path> sourceRoots) {
+    Element topLevel = element;
+    while (!(topLevel instanceof PackageElement) && topLevel.getEnclosingElement() != null
+      && !(topLevel.getEnclosingElement() instanceof PackageElement)) {
+      topLevel = topLevel.getEnclosingElement();
+    }
+    String relativeSource;
+    if (topLevel instanceof PackageElement) {
+      String packageName = ((PackageElement) topLevel).getQualifiedName().toString();
+      relativeSource = (packageName.isEmpty() ? "" : packageName.replace('.', File.separatorChar) + File.separator) + "package-info.java";
+    } else if (topLevel instanceof TypeElement) {
+      relativeSource = ((TypeElement) topLevel).getQualifiedName().toString().replace('.', File.separatorChar) + ".java";
+    } else {
+      return Optional.empty();
+    }
+    Optional<Path> source = sourceRoots.stream()
+      .map(root -> root.resolve(relativeSource))
+      .filter(Files::exists)
+      .findFirst();
+    if (!source.isPresent() && topLevel instanceof TypeElement) {
+      // e.g. a non-public class in a source file of another name
+      return index.sourceOf(((TypeElement) topLevel).getQualifiedName().toString());
+    }
+    return source;
+  }
+
+  // deletes stale generated files, along with any classes compiled from them, returning the names of those classes
+  private Set<String> deleteGenerated(Path outputDirectory, Set<Path> generated) {
+    Set<String> removed = new HashSet<>();
+    generated.forEach(file -> {
+      LOGGER.info("Removing stale generated file {}", file);
+      Set<String> classes = index.remove(file);
+      deleteClassFiles(outputDirectory, classes);
+      removed.addAll(classes);
+      try {
+        Files.deleteIfExists(file);
+      } catch (IOException e) {
+        LOGGER.warn("unable to delete stale generated file {}", file, e);
+      }
+    });
+    return removed;
+  }
+
+  private void addPropertyOption(MavenProject project, List<String> options, String option, String property) {
+    String value = project.getProperties().getProperty(property);
+    if (value != null) {
+      options.add(option);
+      options.add(value);
+    }
+  }
+
+  private void deleteClassFiles(Path outputDirectory, Collection<String> classNames) {
+    classNames.forEach(className -> {
+      try {
+        Files.deleteIfExists(classFilePath(outputDirectory, className));
+      } catch (IOException e) {
+        LOGGER.warn("unable to delete stale class {}", className, e);
+      }
+    });
+  }
+
+  private static void deleteDirectory(Path directory) {
+    if (!Files.exists(directory)) {
+      return;
+    }
+    try (Stream<Path> paths = Files.walk(directory)) {
+      paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    } catch (IOException e) {
+      LOGGER.warn("unable to delete {}", directory, e);
+    }
+  }
+
+  private static Path classFilePath(Path outputDirectory, String className) {
+    return outputDirectory.resolve(className.replace('.', File.separatorChar) + CLASS_EXTENSION);
+  }
+
+  // the compile source roots, and the directory of generated sources
+  private static List<Path> sourceRoots(MavenProject project) {
+    return Stream.concat(project.getCompileSourceRoots().stream().map(Paths::get), Stream.of(generatedSourcesDirectory(project)))
+      .map(JavacCompiler::normalize)
+      .distinct()
+      .collect(toList());
+  }
+
+  private static Path generatedSourcesDirectory(MavenProject project) {
+    return ClassPathCache.buildDirectory(project).resolve(GENERATED_SOURCES_DIRECTORY);
+  }
+
+  private static Set<Path> existing(Collection<Path> paths) {
+    return paths.stream().filter(Files::exists).collect(toSet());
+  }
+
+  private static Path normalize(Path path) {
+    return path.toAbsolutePath().normalize();
+  }
+
+  private static CompileDiagnostic toCompileDiagnostic(Diagnostic<? extends JavaFileObject> diagnostic) {
+    String source = diagnostic.getSource() != null ? new File(diagnostic.getSource().toUri()).getPath() : "";
+    return new CompileDiagnostic(
+      source,
+      Math.max(diagnostic.getLineNumber(), 0),
+      Math.max(diagnostic.getColumnNumber(), 0),
+      diagnostic.getKind() == Diagnostic.Kind.ERROR ? CompileDiagnostic.Severity.ERROR : CompileDiagnostic.Severity.WARNING,
+      diagnostic.getMessage(Locale.getDefault()));
+  }
+
+  /**
+   * Records the classes that javac writes for each source file.
+   * It is also where javac is stopped if the compile is cancelled, as javac consults it throughout a compile.
+   */
+  private static class RecordingFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+    private final Map<Path, List<String>> classNamesBySource;
+    private final BooleanSupplier cancelled;
+
+    RecordingFileManager(StandardJavaFileManager fileManager, Map<Path, List<String>> classNamesBySource, BooleanSupplier cancelled) {
+      super(fileManager);
+      this.classNamesBySource = classNamesBySource;
+      this.cancelled = cancelled;
+    }
+
+    @Override
+    public Iterable<JavaFileObject> list(Location location, String packageName, Set<JavaFileObject.Kind> kinds, boolean recurse) throws IOException {
+      checkCancelled();
+      return super.list(location, packageName, kinds, recurse);
+    }
+
+    @Override
+    public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling) throws IOException {
+      checkCancelled();
+      if (kind == JavaFileObject.Kind.CLASS && sibling != null) {
+        classNamesBySource.computeIfAbsent(normalize(Paths.get(sibling.toUri())), s -> new ArrayList<>()).add(className);
+      }
+      return super.getJavaFileForOutput(location, className, kind, sibling);
+    }
+
+    private void checkCancelled() {
+      if (cancelled.getAsBoolean()) {
+        throw new CancellationException("compile cancelled");
+      }
+    }
+  }
+
+  private static class Shard {
+    private final Set<Path> sources;
+    private final Path outputDirectory;
+
+    Shard(Set<Path> sources, Path outputDirectory) {
+      this.sources = sources;
+      this.outputDirectory = outputDirectory;
+    }
+  }
+}
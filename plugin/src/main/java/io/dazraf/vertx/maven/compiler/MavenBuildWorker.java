@@ -0,0 +1,209 @@
+package io.dazraf.vertx.maven.compiler;
+
+import org.apache.maven.shared.invoker.DefaultInvoker;
+import org.apache.maven.shared.invoker.InvocationOutputHandler;
+import org.apache.maven.shared.invoker.InvocationRequest;
+import org.apache.maven.shared.invoker.InvocationResult;
+import org.apache.maven.shared.invoker.Invoker;
+import org.apache.maven.shared.invoker.MavenInvocationException;
+import org.codehaus.plexus.util.cli.CommandLineException;
+import org.codehaus.plexus.util.cli.CommandLineTimeOutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The worker that the {@link Compiler} hands full maven builds to.
+ *
+ * When the plugin is run by maven, builds run in that maven's JVM, with an {@link EmbeddedMaven} that stays warm
+ * between builds. If a maven daemon executable (e.g. <a href="https://github.com/apache/maven-mvnd">mvnd</a>) is
+ * configured, builds are instead sent to the daemon, which also keeps the project model, plugin realms and resolved
+ * artifacts cached between builds, and can be stopped part way through a build. A cancelled daemon build is stopped by
+ * interrupting the daemon's client, as Ctrl-C would, which cancels the build in the daemon - killing the client alone
+ * would leave the daemon building. Otherwise (e.g. in tests, where there's no running maven) each build forks a cold
+ * maven JVM.
+ */
+class MavenBuildWorker {
+  private static final Logger LOGGER = LoggerFactory.getLogger(MavenBuildWorker.class);
+  private static final long CANCEL_TIMEOUT_SECONDS = 10;
+  private final Invoker invoker = new DefaultInvoker();
+  private final Optional<File> mavenDaemon;
+  private final Optional<EmbeddedMaven> embeddedMaven;
+
+  MavenBuildWorker(Optional<String> mavenDaemon) {
+    this(mavenDaemon, Optional.empty());
+  }
+
+  MavenBuildWorker(Optional<String> mavenDaemon, Optional<EmbeddedMaven> embeddedMaven) {
+    this.embeddedMaven = embeddedMaven;
+    this.mavenDaemon = mavenDaemon.map(File::new);
+    this.mavenDaemon.ifPresent(executable -> {
+      if (!executable.canExecute()) {
+        LOGGER.warn("maven daemon {} is not executable", executable);
+      }
+      LOGGER.info("Using maven daemon: {}", executable);
+    });
+  }
+
+  InvocationResult execute(InvocationRequest request) throws MavenInvocationException {
+    long startTime = System.nanoTime();
+    InvocationResult result;
+    String kind;
+    if (mavenDaemon.isPresent()) {
+      result = executeOnDaemon(request, mavenDaemon.get());
+      kind = "daemon";
+    } else if (embeddedMaven.isPresent()) {
+      result = embeddedMaven.get().execute(request);
+      kind = "embedded";
+    } else {
+      result = invoker.execute(request);
+      kind = "cold";
+    }
+    LOGGER.debug("{} build in {}s", kind, String.format("%1.3f", (System.nanoTime() - startTime) * 1E-9));
+    return result;
+  }
+
+  private InvocationResult executeOnDaemon(InvocationRequest request, File executable) {
+    Process process;
+    try {
+      process = start(request, commandLine(request, executable));
+    } catch (IOException e) {
+      return new Result(-1, new CommandLineException("Error while executing external command: " + e.getMessage(), e));
+    }
+    Thread output = pump(process.getInputStream(), request.getOutputHandler(line -> {}));
+    Thread errors = pump(process.getErrorStream(), request.getErrorHandler(line -> {}));
+    try {
+      int exitCode = process.waitFor();
+      output.join();
+      errors.join();
+      return new Result(exitCode, null);
+    } catch (InterruptedException e) {
+      cancel(process);
+      // as with the invoker, a cancelled build is reported as having timed out
+      return new Result(-1, new CommandLineTimeOutException("maven daemon build cancelled"));
+    }
+  }
+
+  // the options of the request that the compiler uses, as the daemon's client takes them - the invoker's command line
+  // builder isn't used, as it requires a maven home even when given the executable
+  static List<String> commandLine(InvocationRequest request, File executable) {
+    List<String> commandLine = new ArrayList<>();
+    commandLine.add(executable.getAbsolutePath());
+    commandLine.add("--batch-mode");
+    if (request.getPomFile() != null) {
+      commandLine.add("--file");
+      commandLine.add(request.getPomFile().getAbsolutePath());
+    }
+    if (request.getProjects() != null && !request.getProjects().isEmpty()) {
+      commandLine.add("--projects");
+      commandLine.add(String.join(",", request.getProjects()));
+    }
+    if (request.isAlsoMake()) {
+      commandLine.add("--also-make");
+    }
+    if (request.getThreads() != null) {
+      commandLine.add("--threads");
+      commandLine.add(request.getThreads());
+    }
+    if (request.getProperties() != null) {
+      request.getProperties().stringPropertyNames().forEach(name ->
+        commandLine.add("-D" + name + "=" + request.getProperties().getProperty(name)));
+    }
+    // plain line-by-line output, so that the output handler sees the same lines as it would from maven
+    commandLine.add("-Dmvnd.rawStreams=true");
+    request.getGoals().forEach(goal -> commandLine.addAll(Arrays.asList(goal.trim().split("\\s+"))));
+    return commandLine;
+  }
+
+  // started directly rather than through a shell, so that the interrupt goes to the client itself
+  private static Process start(InvocationRequest request, List<String> commandLine) throws IOException {
+    ProcessBuilder processBuilder = new ProcessBuilder(commandLine);
+    File pom = request.getPomFile();
+    processBuilder.directory(request.getBaseDirectory(pom != null ? pom.getAbsoluteFile().getParentFile() : null));
+    processBuilder.environment().putAll(request.getShellEnvironments());
+    if (request.getJavaHome() != null) {
+      processBuilder.environment().put("JAVA_HOME", request.getJavaHome().getAbsolutePath());
+    }
+    return processBuilder.start();
+  }
+
+  private static void cancel(Process process) {
+    Optional<Long> pid = pidOf(process);
+    try {
+      if (pid.isPresent()) {
+        new ProcessBuilder("kill", "-INT", pid.get().toString()).start().waitFor();
+        if (process.waitFor(CANCEL_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+          return;
+        }
+        LOGGER.warn("maven daemon client didn't stop within {}s of being interrupted", CANCEL_TIMEOUT_SECONDS);
+      } else {
+        LOGGER.warn("can't interrupt the maven daemon client on this platform - the daemon's build will run to completion");
+      }
+    } catch (IOException | InterruptedException e) {
+      LOGGER.warn("error in interrupting the maven daemon client", e);
+    }
+    process.destroy();
+  }
+
+  // Process.pid() from Java 9, or the pid of the Java 8 UNIXProcess
+  private static Optional<Long> pidOf(Process process) {
+    try {
+      return Optional.of((Long) Process.class.getMethod("pid").invoke(process));
+    } catch (ReflectiveOperationException e) {
+      try {
+        Field pid = process.getClass().getDeclaredField("pid");
+        pid.setAccessible(true);
+        return Optional.of(((Number) pid.get(process)).longValue());
+      } catch (ReflectiveOperationException | RuntimeException noPid) {
+        return Optional.empty();
+      }
+    }
+  }
+
+  private static Thread pump(InputStream stream, InvocationOutputHandler handler) {
+    Thread thread = new Thread(() -> {
+      try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream))) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          handler.consumeLine(line);
+        }
+      } catch (IOException e) {
+        LOGGER.debug("maven daemon client output closed", e);
+      }
+    }, "vertx-hot-mvnd-output");
+    thread.setDaemon(true);
+    thread.start();
+    return thread;
+  }
+
+  static class Result implements InvocationResult {
+    private final int exitCode;
+    private final CommandLineException executionException;
+
+    Result(int exitCode, CommandLineException executionException) {
+      this.exitCode = exitCode;
+      this.executionException = executionException;
+    }
+
+    @Override
+    public CommandLineException getExecutionException() {
+      return executionException;
+    }
+
+    @Override
+    public int getExitCode() {
+      return exitCode;
+    }
+  }
+}
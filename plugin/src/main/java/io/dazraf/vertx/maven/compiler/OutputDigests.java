@@ -0,0 +1,128 @@
+package io.dazraf.vertx.maven.compiler;
+
+import io.dazraf.vertx.maven.digest.Sha1;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * The digests of the compiled output directories as they were when last deployed. Used to skip the redeploy when
+ * a compile produced the same bytecode as is running, e.g. after an edit to a comment, or a rebuild of a module that
+ * hadn't really changed.
+ *
+ * The snapshot taken after a compile only becomes the baseline once it has been deployed, so that a compile whose
+ * deploy is cancelled, deferred or fails is still compared with what is actually running.
+ *
+ * Class files can optionally be compared by {@link ClassFile#getMaterialDigest()}, so that line numbers shifted by an
+ * edit don't count as a change. Every other file is compared by its content. A file whose size and modification time
+ * are the same as at the last snapshot is not read again.
+ */
+public class OutputDigests {
+  private static final Logger LOGGER = LoggerFactory.getLogger(OutputDigests.class);
+  private final boolean ignoreDebugInfo;
+  private Map<Path, Entry> deployed = new HashMap<>();
+  private boolean taken;
+  private Map<Path, Entry> pending;
+
+  /**
+   * @param ignoreDebugInfo if true, changes to only the debug attributes of a class (line numbers and local variable
+   *                        tables) are not treated as a change
+   */
+  public OutputDigests(boolean ignoreDebugInfo) {
+    this.ignoreDebugInfo = ignoreDebugInfo;
+  }
+
+  /**
+   * Take a new snapshot of the output directories, to be committed once it has been deployed
+   *
+   * @param directories the output directories - those that don't exist are ignored
+   * @return true if anything in the directories has changed since the last deployed snapshot, or if nothing has been
+   * deployed yet
+   */
+  public synchronized boolean update(Collection<Path> directories) {
+    long startTime = System.nanoTime();
+    Map<Path, Entry> current = new HashMap<>();
+    try {
+      for (Path directory : directories) {
+        if (!Files.isDirectory(directory)) {
+          continue;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+          for (Path file : (Iterable<Path>) files::iterator) {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            if (attributes.isRegularFile()) {
+              current.put(file, entryOf(file, attributes));
+            }
+          }
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      LOGGER.warn("unable to digest the compiled output", e);
+      pending = null;
+      return true;
+    }
+    boolean changed = !taken || !digestsOf(current).equals(digestsOf(deployed));
+    pending = current;
+    LOGGER.debug("Digested {} output file(s) in {}ms", current.size(), (System.nanoTime() - startTime) / 1_000_000);
+    return changed;
+  }
+
+  /**
+   * Make the last snapshot the baseline, now that its output has been deployed
+   */
+  public synchronized void commit() {
+    if (pending != null) {
+      deployed = pending;
+      taken = true;
+      pending = null;
+    }
+  }
+
+  private Entry entryOf(Path file, BasicFileAttributes attributes) throws IOException {
+    long size = attributes.size();
+    long modified = attributes.lastModifiedTime().toMillis();
+    for (Map<Path, Entry> snapshot : pending != null ? Arrays.asList(pending, deployed) : Collections.singletonList(deployed)) {
+      Entry previous = snapshot.get(file);
+      if (previous != null && previous.size == size && previous.modified == modified) {
+        return previous;
+      }
+    }
+    byte[] bytes = Files.readAllBytes(file);
+    if (ignoreDebugInfo && file.getFileName().toString().endsWith(".class")) {
+      try {
+        return new Entry(size, modified, ClassFile.read(bytes).getMaterialDigest());
+      } catch (IOException | RuntimeException e) {
+        LOGGER.debug("unable to read class file {}", file, e);
+      }
+    }
+    return new Entry(size, modified, Sha1.of(bytes));
+  }
+
+  private static Map<Path, String> digestsOf(Map<Path, Entry> entries) {
+    Map<Path, String> digests = new HashMap<>();
+    entries.forEach((path, entry) -> digests.put(path, entry.digest));
+    return digests;
+  }
+
+  private static class Entry {
+    private final long size;
+    private final long modified;
+    private final String digest;
+
+    Entry(long size, long modified, String digest) {
+      this.size = size;
+      this.modified = modified;
+      this.digest = digest;
+    }
+  }
+}
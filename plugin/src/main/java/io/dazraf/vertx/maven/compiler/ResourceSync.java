@@ -0,0 +1,187 @@
+package io.dazraf.vertx.maven.compiler;
+
+import org.apache.maven.model.Resource;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.MatchPatterns;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Copies changed resources into the output directory, as the {@code process-resources} phase of a maven build would,
+ * but without invoking maven.
+ *
+ * Each resource is mapped through the {@code <resource>} that contains it - honouring its {@code targetPath},
+ * {@code includes} and {@code excludes}. Resources of a {@code <resource>} with {@code filtering} enabled have
+ * {@code ${property}} and {@code @property@} expressions replaced with the project's properties, as the maven
+ * resources plugin does by default. Deleted resources are removed from the output directory.
+ */
+class ResourceSync {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ResourceSync.class);
+  private static final List<String> DEFAULT_INCLUDES = Collections.singletonList("**/**");
+  // the extensions that the maven resources plugin never filters, by default
+  private static final Set<String> NON_FILTERED_EXTENSIONS = new HashSet<>(Arrays.asList("jpg", "jpeg", "gif", "bmp", "png"));
+
+  private final MatchPatterns sourceGeneratingResources;
+
+  /**
+   * @param sourceGeneratingResources patterns (e.g. {@code **}{@code /*.proto}) of resources that are used to generate
+   *                                  sources, and so can't be synced without a full build
+   */
+  ResourceSync(List<String> sourceGeneratingResources) {
+    this.sourceGeneratingResources = MatchPatterns.from(sourceGeneratingResources);
+  }
+
+  /**
+   * @param project the maven project
+   * @param path a changed file
+   * @return true if the file is a resource of the project that can be synced without a build
+   */
+  boolean canSync(MavenProject project, Path path) {
+    return resourceOf(project, path)
+      .filter(resource -> !Files.isDirectory(path))
+      .filter(resource -> !sourceGeneratingResources.matches(relativePath(resource, path), true))
+      .isPresent();
+  }
+
+  /**
+   * Copy the changed resources into the output directory, or remove them from it if they have been deleted
+   *
+   * @param project the maven project
+   * @param changedPaths the changed resources
+   * @throws CompilerException if a resource can't be copied
+   */
+  void sync(MavenProject project, Collection<Path> changedPaths) throws CompilerException {
+    Path outputDirectory = Paths.get(project.getBuild().getOutputDirectory());
+    Properties properties = filterProperties(project);
+    Charset encoding = encoding(project);
+    int synced = 0;
+    for (Path path : changedPaths) {
+      Optional<Resource> resource = resourceOf(project, path);
+      if (!resource.isPresent()) {
+        continue;
+      }
+      String relativePath = relativePath(resource.get(), path);
+      Path target = targetDirectory(outputDirectory, resource.get()).resolve(relativePath);
+      try {
+        if (!Files.exists(path) || !isIncluded(resource.get(), relativePath)) {
+          Files.deleteIfExists(target);
+        } else {
+          Files.createDirectories(target.getParent());
+          if (resource.get().isFiltering() && !NON_FILTERED_EXTENSIONS.contains(extension(path))) {
+            String content = new String(Files.readAllBytes(path), encoding);
+            Files.write(target, filter(content, properties).getBytes(encoding));
+          } else {
+            Files.copy(path, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+          }
+        }
+        synced++;
+      } catch (IOException e) {
+        throw new CompilerException(1, Collections.singletonList(
+          new CompileDiagnostic(path.toString(), 0, 0, CompileDiagnostic.Severity.ERROR, "unable to copy resource: " + e)));
+      }
+    }
+    LOGGER.info("Synced {} resource(s) to {}", synced, outputDirectory);
+  }
+
+  /**
+   * Replace the {@code ${property}} and {@code @property@} expressions of a filtered resource. Unknown properties are
+   * left as they are.
+   *
+   * @param content the content of the resource
+   * @param properties the properties to substitute
+   * @return the filtered content
+   */
+  static String filter(String content, Properties properties) {
+    StringBuilder result = new StringBuilder(content.length());
+    int index = 0;
+    while (index < content.length()) {
+      char c = content.charAt(index);
+      int end = -1;
+      String key = null;
+      if (c == '$' && index + 1 < content.length() && content.charAt(index + 1) == '{') {
+        end = content.indexOf('}', index + 2);
+        key = end > 0 ? content.substring(index + 2, end) : null;
+      } else if (c == '@') {
+        end = content.indexOf('@', index + 1);
+        key = end > 0 ? content.substring(index + 1, end) : null;
+      }
+      String value = key != null && !key.isEmpty() && key.indexOf('\n') < 0 ? properties.getProperty(key) : null;
+      if (value != null) {
+        result.append(value);
+        index = end + 1;
+      } else {
+        result.append(c);
+        index++;
+      }
+    }
+    return result.toString();
+  }
+
+  private Optional<Resource> resourceOf(MavenProject project, Path path) {
+    Path normalized = path.toAbsolutePath().normalize();
+    return project.getResources().stream()
+      .filter(resource -> normalized.startsWith(resourceDirectory(resource)))
+      .findFirst();
+  }
+
+  private boolean isIncluded(Resource resource, String relativePath) {
+    List<String> includes = resource.getIncludes().isEmpty() ? DEFAULT_INCLUDES : resource.getIncludes();
+    return MatchPatterns.from(includes).matches(relativePath, true)
+      && !MatchPatterns.from(resource.getExcludes()).matches(relativePath, true);
+  }
+
+  private static String relativePath(Resource resource, Path path) {
+    return resourceDirectory(resource).relativize(path.toAbsolutePath().normalize()).toString();
+  }
+
+  private static Path resourceDirectory(Resource resource) {
+    return Paths.get(resource.getDirectory()).toAbsolutePath().normalize();
+  }
+
+  private static Path targetDirectory(Path outputDirectory, Resource resource) {
+    return resource.getTargetPath() != null ? outputDirectory.resolve(resource.getTargetPath()) : outputDirectory;
+  }
+
+  private static String extension(Path path) {
+    String name = path.getFileName().toString();
+    int index = name.lastIndexOf('.');
+    return index >= 0 ? name.substring(index + 1).toLowerCase(Locale.ROOT) : "";
+  }
+
+  private static Charset encoding(MavenProject project) {
+    String encoding = project.getProperties().getProperty("project.build.sourceEncoding");
+    return encoding != null && Charset.isSupported(encoding) ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+  }
+
+  private static Properties filterProperties(MavenProject project) {
+    Properties properties = new Properties();
+    properties.putAll(System.getProperties());
+    properties.putAll(project.getProperties());
+    putIfPresent(properties, "project.groupId", project.getGroupId());
+    putIfPresent(properties, "project.artifactId", project.getArtifactId());
+    putIfPresent(properties, "project.version", project.getVersion());
+    putIfPresent(properties, "project.name", project.getName());
+    putIfPresent(properties, "project.description", project.getDescription());
+    putIfPresent(properties, "project.basedir", project.getFile() != null ? project.getFile().getParent() : null);
+    putIfPresent(properties, "project.build.directory", project.getBuild().getDirectory());
+    putIfPresent(properties, "project.build.outputDirectory", project.getBuild().getOutputDirectory());
+    putIfPresent(properties, "project.build.finalName", project.getBuild().getFinalName());
+    putIfPresent(properties, "basedir", project.getFile() != null ? project.getFile().getParent() : null);
+    return properties;
+  }
+
+  private static void putIfPresent(Properties properties, String key, String value) {
+    if (value != null) {
+      properties.setProperty(key, value);
+    }
+  }
+}
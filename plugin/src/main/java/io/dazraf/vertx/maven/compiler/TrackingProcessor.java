@@ -0,0 +1,157 @@
+package io.dazraf.vertx.maven.compiler;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.FileObject;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Wraps an annotation processor to record each file that it generates, along with the source files of the
+ * originating elements that it declares for the file.
+ */
+class TrackingProcessor implements Processor {
+  private final Processor delegate;
+  private final Function<Element, Optional<Path>> sourceOf;
+  private final BiConsumer<Path, Set<Path>> generatedListener;
+
+  /**
+   * @param delegate the processor
+   * @param sourceOf locates the source file of an element
+   * @param generatedListener called with each generated file, and the sources that it was generated from
+   */
+  TrackingProcessor(Processor delegate, Function<Element, Optional<Path>> sourceOf, BiConsumer<Path, Set<Path>> generatedListener) {
+    this.delegate = delegate;
+    this.sourceOf = sourceOf;
+    this.generatedListener = generatedListener;
+  }
+
+  @Override
+  public Set<String> getSupportedOptions() {
+    return delegate.getSupportedOptions();
+  }
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return delegate.getSupportedAnnotationTypes();
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return delegate.getSupportedSourceVersion();
+  }
+
+  @Override
+  public void init(ProcessingEnvironment processingEnv) {
+    delegate.init(new TrackingProcessingEnvironment(processingEnv));
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    return delegate.process(annotations, roundEnv);
+  }
+
+  @Override
+  public Iterable<? extends Completion> getCompletions(Element element, AnnotationMirror annotation, ExecutableElement member, String userText) {
+    return delegate.getCompletions(element, annotation, member, userText);
+  }
+
+  private void record(FileObject generated, Element[] originatingElements) {
+    Set<Path> origins = new HashSet<>();
+    for (Element element : originatingElements) {
+      sourceOf.apply(element).ifPresent(origins::add);
+    }
+    generatedListener.accept(Paths.get(generated.toUri()).toAbsolutePath().normalize(), origins);
+  }
+
+  private class TrackingProcessingEnvironment implements ProcessingEnvironment {
+    private final ProcessingEnvironment delegate;
+    private final Filer filer;
+
+    TrackingProcessingEnvironment(ProcessingEnvironment delegate) {
+      this.delegate = delegate;
+      this.filer = new TrackingFiler(delegate.getFiler());
+    }
+
+    @Override
+    public Map<String, String> getOptions() {
+      return delegate.getOptions();
+    }
+
+    @Override
+    public Messager getMessager() {
+      return delegate.getMessager();
+    }
+
+    @Override
+    public Filer getFiler() {
+      return filer;
+    }
+
+    @Override
+    public Elements getElementUtils() {
+      return delegate.getElementUtils();
+    }
+
+    @Override
+    public Types getTypeUtils() {
+      return delegate.getTypeUtils();
+    }
+
+    @Override
+    public SourceVersion getSourceVersion() {
+      return delegate.getSourceVersion();
+    }
+
+    @Override
+    public Locale getLocale() {
+      return delegate.getLocale();
+    }
+  }
+
+  private class TrackingFiler implements Filer {
+    private final Filer delegate;
+
+    TrackingFiler(Filer delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public JavaFileObject createSourceFile(CharSequence name, Element... originatingElements) throws IOException {
+      JavaFileObject generated = delegate.createSourceFile(name, originatingElements);
+      record(generated, originatingElements);
+      return generated;
+    }
+
+    @Override
+    public JavaFileObject createClassFile(CharSequence name, Element... originatingElements) throws IOException {
+      JavaFileObject generated = delegate.createClassFile(name, originatingElements);
+      record(generated, originatingElements);
+      return generated;
+    }
+
+    @Override
+    public FileObject createResource(JavaFileManager.Location location, CharSequence pkg, CharSequence relativeName, Element... originatingElements) throws IOException {
+      FileObject generated = delegate.createResource(location, pkg, relativeName, originatingElements);
+      record(generated, originatingElements);
+      return generated;
+    }
+
+    @Override
+    public FileObject getResource(JavaFileManager.Location location, CharSequence pkg, CharSequence relativeName) throws IOException {
+      return delegate.getResource(location, pkg, relativeName);
+    }
+  }
+}
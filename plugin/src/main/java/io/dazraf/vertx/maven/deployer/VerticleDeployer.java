@@ -22,12 +22,14 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Scanner;
+import java.util.function.Supplier;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class VerticleDeployer implements Closeable {
   private static final Logger logger = LoggerFactory.getLogger(VerticleDeployer.class);
+  private static final long DRAIN_TIMEOUT_MILLIS = 5000;
   private final Vertx vertx;
   private final AtomicLong nextIsolationGroup = new AtomicLong(1);
 
@@ -53,6 +55,13 @@ public class VerticleDeployer implements Closeable {
     };
   }
 
+  /**
+   * @param metrics the snapshot of the metrics to reply to each request for them with
+   */
+  public void serveMetrics(Supplier<JsonObject> metrics) {
+    vertx.eventBus().<JsonObject>consumer(WebNotificationService.METRICS_ADDRESS, message -> message.reply(metrics.get()));
+  }
+
   public void close() {
     CountDownLatch latch = new CountDownLatch(1);
     vertx.close(ar -> {
@@ -68,11 +77,20 @@ public class VerticleDeployer implements Closeable {
     }
   }
 
+  /**
+   * Deploy a verticle in a new isolation group. Its HTTP servers can share the ports of an existing deployment, and
+   * once it has deployed, all requests are switched over to it. If it fails to deploy, the existing deployment keeps
+   * serving.
+   *
+   * @return closes the deployment, once the requests that it is still serving have completed
+   */
   public Closeable deploy(String verticleReference, List<String> classPaths, Optional<String> config) throws Throwable {
-    DeploymentOptions deploymentOptions = createIsolatingDeploymentOptions(classPaths, config);
-    final String verticleId = deployVerticle(verticleReference, deploymentOptions);
+    long generation = nextIsolationGroup.getAndIncrement();
+    DeploymentOptions deploymentOptions = createIsolatingDeploymentOptions(generation, classPaths, config);
+    final String verticleId = deployGeneration(generation, verticleReference, deploymentOptions);
     return verticleId == null ? null : () -> {
       try {
+        drain(generation);
         CountDownLatch closeLatch = new CountDownLatch(1);
         vertx.undeploy(verticleId, ar -> closeLatch.countDown());
         closeLatch.await();
@@ -82,6 +100,30 @@ public class VerticleDeployer implements Closeable {
     };
   }
 
+  private String deployGeneration(long generation, String verticleReference, DeploymentOptions deploymentOptions) throws Throwable {
+    if (!(vertx instanceof VertxWrapper)) {
+      return deployVerticle(verticleReference, deploymentOptions);
+    }
+    VertxWrapper vertxWrapper = (VertxWrapper) vertx;
+    vertxWrapper.beginGeneration(generation);
+    try {
+      String verticleId = deployVerticle(verticleReference, deploymentOptions);
+      vertxWrapper.promote(generation);
+      return verticleId;
+    } catch (Throwable e) {
+      vertxWrapper.discard(generation);
+      throw e;
+    }
+  }
+
+  // a deployment that has been superseded finishes the requests that it is serving before it is undeployed
+  private void drain(long generation) throws InterruptedException {
+    if (vertx instanceof VertxWrapper && !((VertxWrapper) vertx).isLive(generation)) {
+      logger.info("Draining the previous deployment");
+      ((VertxWrapper) vertx).drain(generation, DRAIN_TIMEOUT_MILLIS);
+    }
+  }
+
   private String deployVerticle(String verticleReference, DeploymentOptions deploymentOptions) throws Throwable {
     try {
       CountDownLatch latch = new CountDownLatch(1);
@@ -104,10 +146,10 @@ public class VerticleDeployer implements Closeable {
     }
   }
 
-  private DeploymentOptions createIsolatingDeploymentOptions(List<String> classPaths, Optional<String> config) throws IOException {
+  private DeploymentOptions createIsolatingDeploymentOptions(long isolationGroup, List<String> classPaths, Optional<String> config) throws IOException {
     DeploymentOptions result = new DeploymentOptions()
       .setExtraClasspath(classPaths)
-      .setIsolationGroup(Long.toString(nextIsolationGroup.getAndIncrement()))
+      .setIsolationGroup(Long.toString(isolationGroup))
       .setIsolatedClasses(Collections.singletonList("*"));
     return assignConfig(classPaths, config, result);
   }
@@ -0,0 +1,65 @@
+package io.dazraf.vertx.maven.digest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * The SHA-1 digests that content is compared by, encoded as Base64
+ */
+public final class Sha1 {
+  private static final int BUFFER_SIZE = 8192;
+
+  private Sha1() {
+  }
+
+  /**
+   * @return a new SHA-1 message digest - every JVM is required to support SHA-1
+   */
+  public static MessageDigest create() {
+    try {
+      return MessageDigest.getInstance("SHA-1");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * @param digest a message digest that has been updated with the content
+   * @return the encoded digest
+   */
+  public static String encode(MessageDigest digest) {
+    return Base64.getEncoder().encodeToString(digest.digest());
+  }
+
+  /**
+   * @param bytes the content
+   * @return the encoded digest of the content
+   */
+  public static String of(byte[] bytes) {
+    MessageDigest digest = create();
+    digest.update(bytes);
+    return encode(digest);
+  }
+
+  /**
+   * @param file a file
+   * @return the encoded digest of the content of the file, read in chunks
+   * @throws IOException if the file can't be read
+   */
+  public static String ofFile(Path file) throws IOException {
+    try (InputStream input = Files.newInputStream(file)) {
+      MessageDigest digest = create();
+      byte[] buffer = new byte[BUFFER_SIZE];
+      int read;
+      while ((read = input.read(buffer)) > 0) {
+        digest.update(buffer, 0, read);
+      }
+      return encode(digest);
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package io.dazraf.vertx.maven.filewatcher;
+
+import io.dazraf.vertx.maven.digest.Sha1;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * The size, modification time and content digest of each watched file, as it was when it was last reported. Used to
+ * drop the events that leave the content of a file as it was - a {@code touch}, a {@code chmod}, an editor saving the
+ * same bytes, or the second and third events of a save - and the events for temporary files that have gone again by
+ * the time they're looked at.
+ *
+ * Files are recorded by size and modification time only when they're first watched, so that watching a large tree
+ * doesn't read every file in it. A file's content is only digested once there is an event for it, which means the
+ * first change to a file with a new modification time is always reported, even if its content is the same.
+ */
+class FileStates {
+  private static final Logger logger = LoggerFactory.getLogger(FileStates.class);
+  // a file modified this close to when it was recorded could be modified again without its modification time changing
+  private static final long RACY_MILLIS = 2000;
+  private final Map<Path, State> states = new ConcurrentHashMap<>();
+
+  /**
+   * Record the current size and modification time of a file, as the baseline for its events
+   *
+   * @param file the file
+   */
+  void record(Path file) {
+    try {
+      BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+      if (attributes.isRegularFile()) {
+        record(file, attributes.size(), attributes.lastModifiedTime().toMillis());
+      }
+    } catch (IOException e) {
+      logger.debug("unable to record the state of {}", file, e);
+    }
+  }
+
+  /**
+   * Record the size and modification time of a regular file, as the baseline for its events
+   *
+   * @param file the file
+   * @param size its size
+   * @param modified its modification time, in milliseconds
+   */
+  void record(Path file, long size, long modified) {
+    states.put(file, new State(size, modified, null));
+  }
+
+  /**
+   * Compare a path with its recorded state, and record its current state
+   *
+   * @param path a path that there has been an event for
+   * @return true if the content at the path has been changed, created or deleted since it was recorded
+   */
+  boolean update(Path path) {
+    BasicFileAttributes attributes;
+    try {
+      attributes = Files.readAttributes(path, BasicFileAttributes.class);
+    } catch (IOException e) {
+      return remove(path);
+    }
+    if (!attributes.isRegularFile()) {
+      return true;
+    }
+    State recorded = states.get(path);
+    if (recorded != null && recorded.isSameFile(attributes)) {
+      return false;
+    }
+    String digest = digest(path);
+    if (digest == null) {
+      states.remove(path);
+      return true;
+    }
+    states.put(path, new State(attributes.size(), attributes.lastModifiedTime().toMillis(), digest));
+    return recorded == null || recorded.digest == null || !recorded.digest.equals(digest);
+  }
+
+  // a deleted directory takes the files beneath it with it
+  private boolean remove(Path path) {
+    if (states.remove(path) != null) {
+      return true;
+    }
+    List<Path> beneath = states.keySet().stream().filter(file -> file.startsWith(path)).collect(toList());
+    beneath.forEach(states::remove);
+    return !beneath.isEmpty();
+  }
+
+  private static String digest(Path file) {
+    try {
+      return Sha1.ofFile(file);
+    } catch (IOException e) {
+      logger.debug("unable to digest {}", file, e);
+      return null;
+    }
+  }
+
+  private static class State {
+    private final long size;
+    private final long modified;
+    private final long recorded;
+    // null until the file's first event
+    private final String digest;
+
+    State(long size, long modified, String digest) {
+      this.size = size;
+      this.modified = modified;
+      this.recorded = System.currentTimeMillis();
+      this.digest = digest;
+    }
+
+    // true if the file can't have been written since it was recorded, so there's no need to digest it again
+    boolean isSameFile(BasicFileAttributes attributes) {
+      return size == attributes.size() && modified == attributes.lastModifiedTime().toMillis()
+        && modified < recorded - RACY_MILLIS;
+    }
+  }
+}
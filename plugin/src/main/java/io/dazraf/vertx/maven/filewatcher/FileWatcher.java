@@ -0,0 +1,41 @@
+package io.dazraf.vertx.maven.filewatcher;
+
+import rx.Observable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Watches files and directory trees for changes to their content
+ */
+public interface FileWatcher extends Closeable {
+  /**
+   * Watch a file, or a directory tree
+   *
+   * @param path the file or directory - a directory is watched recursively, including directories created later
+   * @return the absolute paths of the files that are created, modified or deleted
+   * @throws IOException if the path can't be watched
+   */
+  default Observable<Path> watch(Path path) throws IOException {
+    return watch(path, WatchFilter.ALL);
+  }
+
+  /**
+   * Watch a file, or a filtered directory tree
+   *
+   * @param path the file or directory - a directory is watched recursively, including directories created later
+   * @param filter the files of a directory to report, and the directories beneath it not to watch at all
+   * @return the absolute paths of the files that are created, modified or deleted
+   * @throws IOException if the path can't be watched
+   */
+  Observable<Path> watch(Path path, WatchFilter filter) throws IOException;
+
+  /**
+   * @return the number of directories being watched
+   */
+  int getWatchedDirectoryCount();
+
+  @Override
+  void close();
+}
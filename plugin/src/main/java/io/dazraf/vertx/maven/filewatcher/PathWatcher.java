@@ -1,56 +1,356 @@
 package io.dazraf.vertx.maven.filewatcher;
 
-import com.darylteo.nio.DirectoryChangedSubscriber;
-import com.darylteo.nio.DirectoryWatcher;
-import com.darylteo.nio.ThreadPoolDirectoryWatchService;
+import io.dazraf.vertx.maven.metrics.Counter;
+import io.dazraf.vertx.maven.metrics.Histogram;
+import io.dazraf.vertx.maven.metrics.Metrics;
 import org.slf4j.Logger;
-
 import org.slf4j.LoggerFactory;
 import rx.Observable;
-import rx.functions.Action0;
-import rx.subjects.PublishSubject;
+import rx.Subscription;
+import rx.subscriptions.Subscriptions;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.stream.Collectors.toList;
 
-public class PathWatcher {
+/**
+ * Watches any number of files and directory trees with a single {@link WatchService}, and a single thread that
+ * dispatches its events to the observers of each watched path. The cost of watching is one watch key per directory,
+ * however many roots there are.
+ *
+ * The directories of a tree are registered in parallel, skipping any that a {@link WatchFilter} excludes, and
+ * directories that are created later are registered as they appear. When a watch is unsubscribed, the watch keys of
+ * the directories that no other watch needs are cancelled.
+ *
+ * An event is only reported if the content of its file has changed since it was last reported, and the events of a
+ * burst are collapsed, so that each save is one change however many events the editor's save produced.
+ */
+public class PathWatcher implements FileWatcher {
   private final static Logger logger = LoggerFactory.getLogger(PathWatcher.class);
+  private static final long SETTLE_MILLIS = 20;
+  private static final long MAX_SETTLE_MILLIS = 250;
+  private static final String PROBE_FILE = "watch-probe";
+  private final WatchService watchService;
+  private final Thread dispatcher;
+  private final Map<WatchKey, Path> directories = new ConcurrentHashMap<>();
+  private final List<Watch> watches = new CopyOnWriteArrayList<>();
+  // the watches whose directories have been registered, but which haven't been subscribed to yet
+  private final List<Watch> pendingWatches = new CopyOnWriteArrayList<>();
+  private final FileStates fileStates = new FileStates();
+  private final Counter events;
+  private final Counter overflows;
+  private final Counter unwatched;
+  private final Counter unchanged;
+  private final Histogram batchSize;
 
-  public static Observable<Path> create(final Path path) throws Exception {
-    PublishSubject<Path> subject = PublishSubject.create();
+  public PathWatcher() throws IOException {
+    this(new Metrics());
+  }
 
-    if (path.toFile().isDirectory()) {
-      subject.doOnSubscribe(createDirectoryWatcher(path, subject::onNext));
-    } else {
-      subject.doOnSubscribe(createDirectoryWatcher(path.getParent(), changedPath -> {
-        if (path.getParent().resolve(changedPath).equals(path)) {
-          subject.onNext(changedPath);
-        }
+  /**
+   * @param metrics records the raw events, the overflows, the events that are dropped because no watch wants them or
+   *                their content hasn't changed, and the number of paths in each batch of events
+   * @throws IOException if the watch service can't be created
+   */
+  public PathWatcher(Metrics metrics) throws IOException {
+    this.events = metrics.counter("watcher.events");
+    this.overflows = metrics.counter("watcher.overflows");
+    this.unwatched = metrics.counter("watcher.droppedUnwatched");
+    this.unchanged = metrics.counter("watcher.droppedUnchanged");
+    this.batchSize = metrics.histogram("watcher.batchSize");
+    metrics.gauge("watcher.watchedDirectories", this::getWatchedDirectoryCount);
+    this.watchService = FileSystems.getDefault().newWatchService();
+    this.dispatcher = new Thread(this::dispatch, "vertx-hot-watcher");
+    dispatcher.setDaemon(true);
+    dispatcher.start();
+  }
+
+  @Override
+  public Observable<Path> watch(Path path, WatchFilter filter) throws IOException {
+    long startTime = System.nanoTime();
+    Path root = path.toAbsolutePath().normalize();
+    boolean directory = Files.isDirectory(root);
+    // pending from before its directories are registered, so that they aren't cancelled by another watch's unsubscribe
+    Watch pending = new Watch(root, directory, filter, changed -> {});
+    pendingWatches.add(pending);
+    try {
+      if (directory) {
+        registerTree(root, root, filter, true);
+      } else {
+        register(root.getParent());
+        fileStates.record(root);
+      }
+    } catch (IOException e) {
+      pendingWatches.remove(pending);
+      cancelUnwatchedDirectories();
+      throw e;
+    }
+    logger.debug("registered {} in {}ms", root, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+    return Observable.create(subscriber -> {
+      Watch watch = new Watch(root, directory, filter, subscriber::onNext);
+      watches.add(watch);
+      pendingWatches.remove(pending);
+      subscriber.add(Subscriptions.create(() -> {
+        logger.info("... unsubscribing from watch of {}", root);
+        watches.remove(watch);
+        cancelUnwatchedDirectories();
       }));
+    });
+  }
+
+  /**
+   * @return the number of directories being watched, i.e. of watch keys
+   */
+  @Override
+  public int getWatchedDirectoryCount() {
+    return directories.size();
+  }
+
+  /**
+   * Check that the watch service receives events, by writing a file - it doesn't for some network and container file
+   * systems (e.g. NFS, or Docker bind mounts). The directory is only watched until the check is done.
+   *
+   * @param directory the directory to write the file to - it is created if need be
+   * @param timeout how long to wait for the event
+   * @param unit the unit of the timeout
+   * @return true if the event for the file was received in time
+   * @throws IOException if the file can't be written
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean receivesEvents(Path directory, long timeout, TimeUnit unit) throws IOException, InterruptedException {
+    Files.createDirectories(directory);
+    Path probe = directory.resolve(PROBE_FILE).toAbsolutePath().normalize();
+    Files.deleteIfExists(probe);
+    CountDownLatch received = new CountDownLatch(1);
+    Subscription subscription = watch(directory).filter(probe::equals).subscribe(path -> received.countDown());
+    try {
+      Files.write(probe, String.valueOf(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8));
+      return received.await(timeout, unit);
+    } finally {
+      subscription.unsubscribe();
+      Files.deleteIfExists(probe);
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      watchService.close();
+    } catch (IOException e) {
+      logger.error("error in shutting down the watch service", e);
+    }
+    dispatcher.interrupt();
+  }
+
+  // events are collected until the file system has been quiet for a moment, so that each file is looked at once for
+  // all of the events of a save (e.g. write a temporary file, rename it over the original, then set its permissions)
+  private void dispatch() {
+    while (true) {
+      Set<Path> changes = new LinkedHashSet<>();
+      try {
+        WatchKey key = watchService.take();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MAX_SETTLE_MILLIS);
+        while (key != null) {
+          collect(key, changes);
+          key = System.nanoTime() < deadline ? watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS) : null;
+        }
+      } catch (InterruptedException | ClosedWatchServiceException e) {
+        return;
+      }
+      batchSize.record(changes.size());
+      changes.forEach(this::route);
+    }
+  }
+
+  private void collect(WatchKey key, Set<Path> changes) {
+    Path directory = directories.get(key);
+    for (WatchEvent<?> event : key.pollEvents()) {
+      events.increment();
+      if (directory == null) {
+        continue;
+      }
+      if (event.kind() == OVERFLOW) {
+        overflows.increment();
+        logger.warn("too many changes under {} - some events were lost", directory);
+        onOverflow(directory);
+        continue;
+      }
+      Path changed = directory.resolve((Path) event.context());
+      if (event.kind() == ENTRY_CREATE && Files.isDirectory(changed, LinkOption.NOFOLLOW_LINKS)) {
+        onDirectoryCreated(changed, changes);
+      } else {
+        changes.add(changed);
+      }
+    }
+    if (!key.reset()) {
+      directories.remove(key);
+    }
+  }
+
+  // a new directory in a watched tree is watched straight away, and any files that were created in it before then are
+  // reported along with the rest of the changes
+  private void onDirectoryCreated(Path created, Set<Path> changes) {
+    List<Watch> treeWatches = new ArrayList<>();
+    watches.stream()
+      .filter(watch -> watch.directory && created.startsWith(watch.root) && !watch.filter.isExcluded(watch.root.relativize(created)))
+      .forEach(treeWatches::add);
+    if (treeWatches.isEmpty()) {
+      return;
+    }
+    try {
+      for (Watch watch : treeWatches) {
+        registerTree(watch.root, created, watch.filter, false);
+      }
+      try (Stream<Path> files = Files.walk(created)) {
+        files.filter(Files::isRegularFile).forEach(changes::add);
+      }
+    } catch (IOException e) {
+      logger.error("unable to watch new directory {}", created, e);
     }
-    return subject;
   }
 
-  private static Action0 createDirectoryWatcher(Path path, Consumer<Path> callback) throws IOException {
-    ThreadPoolDirectoryWatchService factory = new ThreadPoolDirectoryWatchService();
-    DirectoryWatcher directoryWatcher = factory.newWatcher(path);
-    DirectoryChangedSubscriber directoryChangedSubscriber = new DirectoryChangedSubscriber() {
-      @Override
-      public void directoryChanged(DirectoryWatcher directoryWatcher, Path changedPath) {
-        callback.accept(changedPath);
+  // reports the whole directory to the watches of its tree, and each watched file in it to the watch of that file
+  private void onOverflow(Path directory) {
+    watches.forEach(watch -> {
+      if (watch.matches(directory)) {
+        watch.listener.accept(directory);
+      } else if (!watch.directory && directory.equals(watch.root.getParent())) {
+        watch.listener.accept(watch.root);
       }
-    };
+    });
+  }
+
+  private void route(Path changed) {
+    List<Watch> matching = watches.stream().filter(watch -> watch.matches(changed)).collect(toList());
+    if (matching.isEmpty()) {
+      unwatched.increment();
+      return;
+    }
+    if (fileStates.update(changed)) {
+      matching.forEach(watch -> watch.listener.accept(changed));
+    } else {
+      unchanged.increment();
+      logger.debug("ignoring the event for {} - its content is as it was", changed);
+    }
+  }
+
+  private void registerTree(Path root, Path directory, WatchFilter filter, boolean recordFiles) throws IOException {
+    try {
+      ForkJoinPool.commonPool().invoke(new RegisterTree(root, directory, filter, recordFiles));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private void register(Path directory) throws IOException {
+    directories.put(directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), directory);
+  }
 
-    directoryWatcher.subscribe(directoryChangedSubscriber);
-    return () -> {
-      logger.info("... unsubscribing from directory watch");
-      directoryWatcher.unsubscribe(directoryChangedSubscriber);
+  // a watch key is shared by all of the watches of its directory, so it is only cancelled once none of them need it
+  private synchronized void cancelUnwatchedDirectories() {
+    directories.forEach((key, directory) -> {
+      if (watches.stream().noneMatch(watch -> watch.needs(directory))
+        && pendingWatches.stream().noneMatch(watch -> watch.needs(directory))) {
+        logger.debug("no longer watching {}", directory);
+        key.cancel();
+        directories.remove(key);
+      }
+    });
+  }
+
+  /**
+   * Registers a directory, then the directories beneath it that aren't excluded, concurrently. The state of each file
+   * that is watched can be recorded along the way, as the baseline for its events.
+   */
+  private class RegisterTree extends RecursiveAction {
+    private final Path root;
+    private final Path directory;
+    private final WatchFilter filter;
+    private final boolean recordFiles;
+
+    RegisterTree(Path root, Path directory, WatchFilter filter, boolean recordFiles) {
+      this.root = root;
+      this.directory = directory;
+      this.filter = filter;
+      this.recordFiles = recordFiles;
+    }
+
+    @Override
+    protected void compute() {
+      List<RegisterTree> subdirectories = new ArrayList<>();
       try {
-        factory.close();
-      } catch (Exception e) {
-        logger.error("error in shutting down directory watch factory", e);
+        register(directory);
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+          for (Path entry : entries) {
+            if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+              if (!filter.isExcluded(root.relativize(entry))) {
+                subdirectories.add(new RegisterTree(root, entry, filter, recordFiles));
+              }
+            } else if (recordFiles && filter.accepts(root.relativize(entry))) {
+              fileStates.record(entry);
+            }
+          }
+        }
+      } catch (NoSuchFileException e) {
+        return; // deleted while we were registering it
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
       }
-    };
+      invokeAll(subdirectories);
+    }
+  }
+
+  private static class Watch {
+    private final Path root;
+    private final boolean directory;
+    private final WatchFilter filter;
+    private final Consumer<Path> listener;
+
+    Watch(Path root, boolean directory, WatchFilter filter, Consumer<Path> listener) {
+      this.root = root;
+      this.directory = directory;
+      this.filter = filter;
+      this.listener = listener;
+    }
+
+    boolean matches(Path changed) {
+      return directory ? changed.startsWith(root) && filter.accepts(root.relativize(changed)) : changed.equals(root);
+    }
+
+    // true if the directory's events may be wanted by this watch
+    boolean needs(Path watchedDirectory) {
+      return directory
+        ? watchedDirectory.startsWith(root) && (watchedDirectory.equals(root) || !filter.isExcluded(root.relativize(watchedDirectory)))
+        : watchedDirectory.equals(root.getParent());
+    }
   }
 }
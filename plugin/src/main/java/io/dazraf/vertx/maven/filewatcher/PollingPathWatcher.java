@@ -0,0 +1,299 @@
+package io.dazraf.vertx.maven.filewatcher;
+
+import io.dazraf.vertx.maven.metrics.Counter;
+import io.dazraf.vertx.maven.metrics.Histogram;
+import io.dazraf.vertx.maven.metrics.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import rx.Observable;
+import rx.subscriptions.Subscriptions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Watches files and directory trees by scanning them on an interval, for the file systems where the watch service
+ * receives no events (e.g. NFS, or Docker bind mounts).
+ *
+ * The size and modification time of each file of a watched path are kept in a snapshot of sorted, primitive arrays.
+ * Each scan walks the directories of a tree in parallel, and compares the new snapshot with the last one. As with
+ * {@link PathWatcher}, excluded directories aren't scanned, and a change is only reported if the content of its file
+ * has changed.
+ */
+public class PollingPathWatcher implements FileWatcher {
+  private final static Logger logger = LoggerFactory.getLogger(PollingPathWatcher.class);
+  private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "vertx-hot-poller");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final List<PolledPath> polledPaths = new CopyOnWriteArrayList<>();
+  private final FileStates fileStates = new FileStates();
+  private final Counter events;
+  private final Counter unchanged;
+  private final Histogram scanTime;
+
+  /**
+   * @param intervalMillis the delay between the end of one scan and the start of the next
+   */
+  public PollingPathWatcher(long intervalMillis) {
+    this(intervalMillis, new Metrics());
+  }
+
+  /**
+   * @param intervalMillis the delay between the end of one scan and the start of the next
+   * @param metrics records the changes found by each scan, those that are dropped because their content hasn't
+   *                changed, and the time taken by each scan
+   */
+  public PollingPathWatcher(long intervalMillis, Metrics metrics) {
+    this.events = metrics.counter("watcher.events");
+    this.unchanged = metrics.counter("watcher.droppedUnchanged");
+    this.scanTime = metrics.histogram("watcher.scanTime");
+    metrics.gauge("watcher.watchedDirectories", this::getWatchedDirectoryCount);
+    executor.scheduleWithFixedDelay(this::scan, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public Observable<Path> watch(Path path, WatchFilter filter) throws IOException {
+    long startTime = System.nanoTime();
+    PolledPath polledPath = new PolledPath(path.toAbsolutePath().normalize(), filter);
+    polledPath.snapshot.forEach(fileStates::record);
+    polledPaths.add(polledPath);
+    logger.debug("scanned {} in {}ms", polledPath.root, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+    return Observable.create(subscriber -> {
+      Consumer<Path> listener = subscriber::onNext;
+      polledPath.listeners.add(listener);
+      subscriber.add(Subscriptions.create(() -> {
+        logger.info("... unsubscribing from watch of {}", polledPath.root);
+        polledPath.listeners.remove(listener);
+      }));
+    });
+  }
+
+  @Override
+  public int getWatchedDirectoryCount() {
+    return polledPaths.stream().mapToInt(polledPath -> polledPath.snapshot.directoryCount).sum();
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  private void scan() {
+    try {
+      long startTime = System.nanoTime();
+      Set<Path> changes = new LinkedHashSet<>();
+      for (PolledPath polledPath : polledPaths) {
+        polledPath.rescan(changes);
+      }
+      scanTime.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+      events.add(changes.size());
+      if (!changes.isEmpty()) {
+        logger.debug("scan found {} change(s) in {}ms", changes.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+      }
+      changes.forEach(this::route);
+    } catch (IOException | RuntimeException e) {
+      logger.error("error in scanning the watched paths", e); // and try again next time
+    }
+  }
+
+  private void route(Path changed) {
+    List<PolledPath> matching = polledPaths.stream().filter(polledPath -> polledPath.matches(changed)).collect(toList());
+    if (matching.isEmpty()) {
+      return;
+    }
+    if (fileStates.update(changed)) {
+      matching.forEach(polledPath -> polledPath.listeners.forEach(listener -> listener.accept(changed)));
+    } else {
+      unchanged.increment();
+    }
+  }
+
+  private static class PolledPath {
+    private final Path root;
+    private final WatchFilter filter;
+    private final List<Consumer<Path>> listeners = new CopyOnWriteArrayList<>();
+    private volatile Snapshot snapshot;
+
+    PolledPath(Path root, WatchFilter filter) throws IOException {
+      this.root = root;
+      this.filter = filter;
+      this.snapshot = Snapshot.of(root, filter);
+    }
+
+    void rescan(Set<Path> changes) throws IOException {
+      Snapshot current = Snapshot.of(root, filter);
+      current.compare(snapshot, changes);
+      snapshot = current;
+    }
+
+    boolean matches(Path changed) {
+      return changed.equals(root) || changed.startsWith(root) && filter.accepts(root.relativize(changed));
+    }
+  }
+
+  /**
+   * The files of a watched path, sorted by path, with their sizes and modification times
+   */
+  private static class Snapshot {
+    private final String[] paths;
+    private final long[] sizes;
+    private final long[] modified;
+    private final int directoryCount;
+
+    private Snapshot(String[] paths, long[] sizes, long[] modified, int directoryCount) {
+      this.paths = paths;
+      this.sizes = sizes;
+      this.modified = modified;
+      this.directoryCount = directoryCount;
+    }
+
+    static Snapshot of(Path root, WatchFilter filter) throws IOException {
+      Queue<Entry> entries = new ConcurrentLinkedQueue<>();
+      AtomicInteger directoryCount = new AtomicInteger();
+      if (Files.isDirectory(root)) {
+        try {
+          ForkJoinPool.commonPool().invoke(new ScanDirectory(root, root, filter, entries, directoryCount));
+        } catch (UncheckedIOException e) {
+          throw e.getCause();
+        }
+      } else {
+        Entry.of(root).ifPresent(entries::add);
+      }
+      List<Entry> sorted = new ArrayList<>(entries);
+      sorted.sort(Comparator.comparing(entry -> entry.path));
+      String[] paths = new String[sorted.size()];
+      long[] sizes = new long[sorted.size()];
+      long[] modified = new long[sorted.size()];
+      for (int i = 0; i < paths.length; i++) {
+        Entry entry = sorted.get(i);
+        paths[i] = entry.path;
+        sizes[i] = entry.size;
+        modified[i] = entry.modified;
+      }
+      return new Snapshot(paths, sizes, modified, directoryCount.get());
+    }
+
+    // merges the two sorted snapshots, collecting the files that have been created, modified or deleted
+    void compare(Snapshot previous, Set<Path> changes) {
+      int i = 0;
+      int j = 0;
+      while (i < paths.length || j < previous.paths.length) {
+        int order = i == paths.length ? 1 : j == previous.paths.length ? -1 : paths[i].compareTo(previous.paths[j]);
+        if (order < 0) {
+          changes.add(Paths.get(paths[i++]));
+        } else if (order > 0) {
+          changes.add(Paths.get(previous.paths[j++]));
+        } else {
+          if (sizes[i] != previous.sizes[j] || modified[i] != previous.modified[j]) {
+            changes.add(Paths.get(paths[i]));
+          }
+          i++;
+          j++;
+        }
+      }
+    }
+
+    // the path, size and modification time of each file
+    void forEach(FileConsumer consumer) {
+      for (int i = 0; i < paths.length; i++) {
+        consumer.accept(Paths.get(paths[i]), sizes[i], modified[i]);
+      }
+    }
+  }
+
+  private interface FileConsumer {
+    void accept(Path file, long size, long modified);
+  }
+
+  /**
+   * Scans the files of a directory, then the directories beneath it that aren't excluded, concurrently
+   */
+  private static class ScanDirectory extends RecursiveAction {
+    private final Path root;
+    private final Path directory;
+    private final WatchFilter filter;
+    private final Queue<Entry> entries;
+    private final AtomicInteger directoryCount;
+
+    ScanDirectory(Path root, Path directory, WatchFilter filter, Queue<Entry> entries, AtomicInteger directoryCount) {
+      this.root = root;
+      this.directory = directory;
+      this.filter = filter;
+      this.entries = entries;
+      this.directoryCount = directoryCount;
+    }
+
+    @Override
+    protected void compute() {
+      List<ScanDirectory> subdirectories = new ArrayList<>();
+      directoryCount.incrementAndGet();
+      try (DirectoryStream<Path> children = Files.newDirectoryStream(directory)) {
+        for (Path child : children) {
+          if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+            if (!filter.isExcluded(root.relativize(child))) {
+              subdirectories.add(new ScanDirectory(root, child, filter, entries, directoryCount));
+            }
+          } else if (filter.accepts(root.relativize(child))) {
+            Entry.of(child).ifPresent(entries::add);
+          }
+        }
+      } catch (NoSuchFileException e) {
+        return; // deleted while we were scanning it
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      invokeAll(subdirectories);
+    }
+  }
+
+  private static class Entry {
+    private final String path;
+    private final long size;
+    private final long modified;
+
+    private Entry(String path, long size, long modified) {
+      this.path = path;
+      this.size = size;
+      this.modified = modified;
+    }
+
+    // the entry for a regular file, or empty if it isn't one, or has gone
+    static Optional<Entry> of(Path file) {
+      try {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        return attributes.isRegularFile()
+          ? Optional.of(new Entry(file.toString(), attributes.size(), attributes.lastModifiedTime().toMillis()))
+          : Optional.empty();
+      } catch (IOException e) {
+        return Optional.empty();
+      }
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package io.dazraf.vertx.maven.filewatcher;
+
+import org.codehaus.plexus.util.MatchPatterns;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Include and exclude patterns (e.g. {@code **}{@code /node_modules/**}) for the files under a watched directory,
+ * relative to that directory. Directories that are excluded are never watched at all, so changes beneath them cost
+ * nothing. If there are no includes, every file that isn't excluded is included.
+ */
+public class WatchFilter {
+  public static final WatchFilter ALL = new WatchFilter(Collections.emptyList(), Collections.emptyList());
+  private final List<String> includes;
+  private final List<String> excludes;
+  private final MatchPatterns includePatterns;
+  private final MatchPatterns excludePatterns;
+
+  public WatchFilter(List<String> includes, List<String> excludes) {
+    this.includes = includes;
+    this.excludes = excludes;
+    this.includePatterns = MatchPatterns.from(includes);
+    this.excludePatterns = MatchPatterns.from(excludes);
+  }
+
+  /**
+   * @param includes more specific includes, which replace these if there are any
+   * @param excludes further excludes
+   * @return the combined filter
+   */
+  public WatchFilter with(List<String> includes, List<String> excludes) {
+    List<String> combinedExcludes = new ArrayList<>(this.excludes);
+    combinedExcludes.addAll(excludes);
+    return new WatchFilter(includes.isEmpty() ? this.includes : includes, combinedExcludes);
+  }
+
+  /**
+   * @param relativePath the path of a directory, relative to the watched directory
+   * @return true if the directory, and everything beneath it, is excluded
+   */
+  boolean isExcluded(Path relativePath) {
+    return !relativePath.toString().isEmpty() && excludePatterns.matches(relativePath.toString(), true);
+  }
+
+  /**
+   * @param relativePath the path of a file, relative to the watched directory
+   * @return true if changes to the file should be reported
+   */
+  public boolean accepts(Path relativePath) {
+    String path = relativePath.toString();
+    return !excludePatterns.matches(path, true) && (includes.isEmpty() || includePatterns.matches(path, true));
+  }
+
+  @Override
+  public String toString() {
+    return "includes " + includes + ", excludes " + excludes;
+  }
+}
@@ -0,0 +1,19 @@
+package io.dazraf.vertx.maven.filewatcher;
+
+/**
+ * How the file system is watched
+ */
+public enum WatchMode {
+  /**
+   * With the native watch service, unless it is found not to receive events at startup, then by polling
+   */
+  Auto,
+  /**
+   * With the native watch service - see {@link PathWatcher}
+   */
+  Native,
+  /**
+   * By scanning on an interval - see {@link PollingPathWatcher}
+   */
+  Polling
+}
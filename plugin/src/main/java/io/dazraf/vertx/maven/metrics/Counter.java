@@ -0,0 +1,51 @@
+package io.dazraf.vertx.maven.metrics;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A count of events, with their rate per second over the last minute
+ */
+public class Counter {
+  private static final int SECONDS = 60;
+  private static final int RATE_SECONDS = 10;
+  private final long[] counts = new long[SECONDS];
+  private final long[] seconds = new long[SECONDS];
+  private long total;
+
+  public void increment() {
+    add(1);
+  }
+
+  public synchronized void add(long count) {
+    long second = System.currentTimeMillis() / 1000;
+    int index = (int) (second % SECONDS);
+    if (seconds[index] != second) {
+      seconds[index] = second;
+      counts[index] = 0;
+    }
+    counts[index] += count;
+    total += count;
+  }
+
+  /**
+   * @return the total, the mean rate per second over the last ten complete seconds, and the peak rate of the last minute
+   */
+  public synchronized JsonObject snapshot() {
+    long now = System.currentTimeMillis() / 1000;
+    long recent = 0;
+    long peak = 0;
+    for (int i = 0; i < SECONDS; i++) {
+      long age = now - seconds[i];
+      if (age < SECONDS) {
+        peak = Math.max(peak, counts[i]);
+        if (age >= 1 && age <= RATE_SECONDS) {
+          recent += counts[i];
+        }
+      }
+    }
+    return new JsonObject()
+      .put("total", total)
+      .put("perSecond", (double) recent / RATE_SECONDS)
+      .put("peakPerSecond", peak);
+  }
+}
@@ -0,0 +1,51 @@
+package io.dazraf.vertx.maven.metrics;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * The distribution of a measurement (e.g. a latency in milliseconds, or a batch size), in fixed, roughly logarithmic
+ * buckets. Percentiles are reported as the upper bound of the bucket that they fall into.
+ */
+public class Histogram {
+  private static final long[] BOUNDS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1_000, 2_000, 5_000, 10_000, 30_000, 60_000};
+  private final long[] counts = new long[BOUNDS.length + 1];
+  private long count;
+  private long sum;
+  private long max;
+
+  public synchronized void record(long value) {
+    int bucket = 0;
+    while (bucket < BOUNDS.length && value > BOUNDS[bucket]) {
+      bucket++;
+    }
+    counts[bucket]++;
+    count++;
+    sum += value;
+    max = Math.max(max, value);
+  }
+
+  /**
+   * @return the count, mean, maximum, and the 50th, 95th and 99th percentiles
+   */
+  public synchronized JsonObject snapshot() {
+    return new JsonObject()
+      .put("count", count)
+      .put("mean", count > 0 ? (double) sum / count : 0)
+      .put("max", max)
+      .put("p50", percentile(0.50))
+      .put("p95", percentile(0.95))
+      .put("p99", percentile(0.99));
+  }
+
+  private long percentile(double fraction) {
+    long rank = (long) Math.ceil(count * fraction);
+    long cumulative = 0;
+    for (int bucket = 0; bucket < counts.length; bucket++) {
+      cumulative += counts[bucket];
+      if (cumulative >= rank && cumulative > 0) {
+        return bucket < BOUNDS.length ? Math.min(BOUNDS[bucket], max) : max;
+      }
+    }
+    return 0;
+  }
+}
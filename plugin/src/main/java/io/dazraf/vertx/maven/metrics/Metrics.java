@@ -0,0 +1,49 @@
+package io.dazraf.vertx.maven.metrics;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+/**
+ * The counters, histograms and gauges of the watchers and the hot deploy pipeline, so that a slow reload can be put
+ * down to the watcher, the debounce, the compile or the deploy. Metrics are created on first use, by name.
+ */
+public class Metrics {
+  private final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+  private final Map<String, Histogram> histograms = new ConcurrentSkipListMap<>();
+  private final Map<String, Supplier<? extends Number>> gauges = new ConcurrentSkipListMap<>();
+
+  public Counter counter(String name) {
+    return counters.computeIfAbsent(name, key -> new Counter());
+  }
+
+  public Histogram histogram(String name) {
+    return histograms.computeIfAbsent(name, key -> new Histogram());
+  }
+
+  /**
+   * @param name the name of the gauge
+   * @param gauge supplies the current value whenever a snapshot is taken
+   */
+  public void gauge(String name, Supplier<? extends Number> gauge) {
+    gauges.put(name, gauge);
+  }
+
+  /**
+   * @return the current value of every metric, by name
+   */
+  public JsonObject snapshot() {
+    JsonObject counterValues = new JsonObject();
+    counters.forEach((name, counter) -> counterValues.put(name, counter.snapshot()));
+    JsonObject histogramValues = new JsonObject();
+    histograms.forEach((name, histogram) -> histogramValues.put(name, histogram.snapshot()));
+    JsonObject gaugeValues = new JsonObject();
+    gauges.forEach((name, gauge) -> gaugeValues.put(name, gauge.get()));
+    return new JsonObject()
+      .put("counters", counterValues)
+      .put("histograms", histogramValues)
+      .put("gauges", gaugeValues);
+  }
+}
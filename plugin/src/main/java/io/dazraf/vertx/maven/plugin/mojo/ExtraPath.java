@@ -2,6 +2,10 @@ package io.dazraf.vertx.maven.plugin.mojo;
 
 import org.apache.maven.plugins.annotations.Parameter;
 
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+
 public class ExtraPath {
 
   public enum VertxHotAction {
@@ -20,10 +24,24 @@ public class ExtraPath {
   @Parameter(name = "action", defaultValue = "Redeploy", required = false)
   private VertxHotAction action = VertxHotAction.Redeploy;
 
+  @Parameter(name = "includes", required = false)
+  private List<String> includes;
+
+  @Parameter(name = "excludes", required = false)
+  private List<String> excludes;
+
   public String getPath() {
     return path;
   }
 
+  public List<String> getIncludes() {
+    return includes != null ? includes : emptyList();
+  }
+
+  public List<String> getExcludes() {
+    return excludes != null ? excludes : emptyList();
+  }
+
   public ExtraPath withPath(String path) {
     this.path = path;
     return this;
@@ -34,6 +52,16 @@ public class ExtraPath {
     return this;
   }
 
+  public ExtraPath withIncludes(List<String> includes) {
+    this.includes = includes;
+    return this;
+  }
+
+  public ExtraPath withExcludes(List<String> excludes) {
+    this.excludes = excludes;
+    return this;
+  }
+
   public boolean willCauseRecompile() {
     return action == VertxHotAction.Recompile;
   }
@@ -2,10 +2,15 @@ package io.dazraf.vertx.maven.plugin.mojo;
 
 import io.dazraf.vertx.maven.HotDeploy;
 import io.dazraf.vertx.maven.HotDeployParameters;
+import io.dazraf.vertx.maven.compiler.EmbeddedMaven;
+import io.dazraf.vertx.maven.filewatcher.WatchMode;
+import org.apache.maven.Maven;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
@@ -31,6 +36,39 @@ public class VertxHotDeploy extends AbstractMojo {
   @Parameter(property = "buildResources", required = false, defaultValue = "false")
   private boolean buildResources = false;
 
+  @Parameter(property = "sourceGeneratingResources", required = false)
+  private List<String> sourceGeneratingResources;
+
+  @Parameter(property = "incrementalCompile", required = false, defaultValue = "false")
+  private boolean incrementalCompile = false;
+
+  @Parameter(property = "parallelCompile", required = false, defaultValue = "false")
+  private boolean parallelCompile = false;
+
+  @Parameter(property = "ignoreDebugInfoChanges", required = false, defaultValue = "false")
+  private boolean ignoreDebugInfoChanges = false;
+
+  @Parameter(property = "watchIncludes", required = false)
+  private List<String> watchIncludes;
+
+  @Parameter(property = "watchExcludes", required = false)
+  private List<String> watchExcludes;
+
+  @Parameter(property = "watchMode", required = false, defaultValue = "Auto")
+  private WatchMode watchMode = WatchMode.Auto;
+
+  @Parameter(property = "pollInterval", required = false, defaultValue = "1000")
+  private long pollInterval = 1000;
+
+  @Parameter(property = "mavenDaemon", required = false)
+  private String mavenDaemon = null;
+
+  @Parameter(property = "embeddedBuild", required = false, defaultValue = "true")
+  private boolean embeddedBuild = true;
+
+  @Parameter(property = "swapDeploy", required = false, defaultValue = "false")
+  private boolean swapDeploy = false;
+
   @Parameter(property = "notificationPort", required = false, defaultValue = "9999")
   private int notificationPort = 9999;
 
@@ -43,6 +81,15 @@ public class VertxHotDeploy extends AbstractMojo {
   @Parameter(defaultValue = "${project}", readonly = true)
   private MavenProject project = null;
 
+  /**
+   * The running session, and the maven running it, that full builds are embedded in.
+   */
+  @Parameter(defaultValue = "${session}", readonly = true)
+  private MavenSession session = null;
+
+  @Component
+  private Maven maven = null;
+
   @Override
   public void execute() throws MojoExecutionException, MojoFailureException {
     Log log = getLog();
@@ -53,6 +100,19 @@ public class VertxHotDeploy extends AbstractMojo {
         .withConfigFileName(configFile)
         .withLiveHttpReload(liveHttpReload)
         .withBuildResources(buildResources)
+        .withSourceGeneratingResources(sourceGeneratingResources)
+        .withIncrementalCompile(incrementalCompile)
+        .withParallelCompile(parallelCompile)
+        .withIgnoreDebugInfoChanges(ignoreDebugInfoChanges)
+        .withWatchIncludes(watchIncludes)
+        .withWatchExcludes(watchExcludes)
+        .withWatchMode(watchMode)
+        .withPollInterval(pollInterval)
+        .withSwapDeploy(swapDeploy)
+        .withMavenDaemon(mavenDaemon)
+        .withEmbeddedMaven(embeddedBuild && session != null && maven != null
+          ? new EmbeddedMaven(maven, session.getRequest())
+          : null)
         .withNotificationPort(notificationPort)
         .withExtraPaths(extraPaths));
     } catch (Exception e) {
@@ -0,0 +1,243 @@
+package io.dazraf.vertx.maven.reactor;
+
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.Resource;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * The graph of the modules in the maven reactor that the hot deployed project belongs to.
+ * The reactor is read from the poms on disk, starting from the project and walking up through the local parent poms
+ * that list it as a module.
+ */
+public class Reactor {
+  private static final Logger LOGGER = LoggerFactory.getLogger(Reactor.class);
+  private static final String POM = "pom.xml";
+  private static final String DEFAULT_PARENT_PATH = "../pom.xml";
+
+  private final Path rootPom;
+  private final Map<String, ReactorModule> modules;
+  private final ReactorModule target;
+
+  private Reactor(Path rootPom, Map<String, ReactorModule> modules, ReactorModule target) {
+    this.rootPom = rootPom;
+    this.modules = modules;
+    this.target = target;
+  }
+
+  /**
+   * Discover the reactor of the project
+   *
+   * @param project the hot deployed project
+   * @return the reactor, if the project is a module that depends on other modules in the same reactor
+   */
+  public static Optional<Reactor> discover(MavenProject project) {
+    if (project.getFile() == null) {
+      return Optional.empty();
+    }
+    try {
+      Path pom = project.getFile().toPath().toAbsolutePath().normalize();
+      Path rootPom = findRootPom(pom);
+      if (rootPom.equals(pom)) {
+        return Optional.empty();
+      }
+      Map<String, ReactorModule> modules = new LinkedHashMap<>();
+      loadModules(rootPom, readModel(rootPom), modules);
+      Optional<ReactorModule> target = modules.values().stream().filter(module -> module.getPomFile().equals(pom)).findFirst();
+      if (!target.isPresent()) {
+        return Optional.empty();
+      }
+      Reactor reactor = new Reactor(rootPom, modules, target.get());
+      if (reactor.getUpstreamModules().isEmpty()) {
+        return Optional.empty();
+      }
+      LOGGER.info("{} depends on reactor modules {}", target.get(), reactor.getUpstreamModules());
+      return Optional.of(reactor);
+    } catch (IOException | XmlPullParserException e) {
+      LOGGER.warn("unable to read the reactor of {}", project.getFile(), e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * @return the pom of the top level project of the reactor
+   */
+  public Path getRootPom() {
+    return rootPom;
+  }
+
+  /**
+   * @return the module that is being hot deployed
+   */
+  public ReactorModule getTarget() {
+    return target;
+  }
+
+  /**
+   * @return the modules that the target module depends on, directly or indirectly
+   */
+  public Set<ReactorModule> getUpstreamModules() {
+    Set<ReactorModule> result = new LinkedHashSet<>();
+    Deque<ReactorModule> queue = new ArrayDeque<>(Collections.singleton(target));
+    while (!queue.isEmpty()) {
+      queue.remove().getDependencies().stream()
+        .map(modules::get)
+        .filter(Objects::nonNull)
+        .filter(result::add)
+        .forEach(queue::add);
+    }
+    result.remove(target);
+    return result;
+  }
+
+  /**
+   * @param path a changed file
+   * @return the module of the target or its upstream modules that contains the file, if any
+   */
+  public Optional<ReactorModule> moduleOf(Path path) {
+    Path normalized = path.toAbsolutePath().normalize();
+    return relevantModules().stream()
+      .filter(module -> module.contains(normalized))
+      .max(Comparator.comparingInt(module -> module.getBasedir().getNameCount()));
+  }
+
+  /**
+   * Compute the modules that need to be built for a change: the changed modules, and the modules between them and the
+   * target (inclusive) that depend on them
+   *
+   * @param changed the modules that have changed
+   * @return the ids of the modules to build, for maven's {@code --projects} option
+   */
+  public List<String> buildSet(Collection<ReactorModule> changed) {
+    Set<ReactorModule> result = new LinkedHashSet<>(changed);
+    boolean added = true;
+    while (added) {
+      added = relevantModules().stream()
+        .filter(module -> !result.contains(module))
+        .filter(module -> result.stream().anyMatch(built -> module.getDependencies().contains(built.getId())))
+        .map(result::add)
+        .reduce(false, Boolean::logicalOr);
+    }
+    return result.stream().map(ReactorModule::getId).collect(toList());
+  }
+
+  /**
+   * Replace any installed jars of the upstream modules on a class path with their output directories,
+   * so that the deployment sees the latest classes without an install
+   *
+   * @param classPath the resolved class path
+   * @return the class path with the upstream modules' output directories in place of their jars
+   */
+  public List<String> replaceInstalledArtifacts(List<String> classPath) {
+    Set<ReactorModule> upstream = getUpstreamModules();
+    return classPath.stream()
+      .map(entry -> upstream.stream()
+        .filter(module -> module.isInstalledArtifact(entry))
+        .findFirst()
+        .map(module -> module.getOutputDirectory().toString())
+        .orElse(entry))
+      .distinct()
+      .collect(toList());
+  }
+
+  private Set<ReactorModule> relevantModules() {
+    Set<ReactorModule> result = new LinkedHashSet<>(getUpstreamModules());
+    result.add(target);
+    return result;
+  }
+
+  private static Path findRootPom(Path pom) throws IOException, XmlPullParserException {
+    Path root = pom;
+    while (true) {
+      Parent parent = readModel(root).getParent();
+      if (parent == null) {
+        return root;
+      }
+      Path parentPom = resolvePom(root.getParent(), parent.getRelativePath() != null ? parent.getRelativePath() : DEFAULT_PARENT_PATH);
+      if (!Files.isRegularFile(parentPom)) {
+        return root;
+      }
+      Path moduleDirectory = root.getParent();
+      boolean listsModule = readModel(parentPom).getModules().stream()
+        .map(module -> parentPom.getParent().resolve(module).normalize())
+        .anyMatch(moduleDirectory::equals);
+      if (!listsModule) {
+        return root;
+      }
+      root = parentPom;
+    }
+  }
+
+  private static void loadModules(Path pom, Model model, Map<String, ReactorModule> modules) throws IOException, XmlPullParserException {
+    if (!"pom".equals(model.getPackaging())) {
+      ReactorModule module = createModule(pom, model);
+      modules.put(module.getId(), module);
+    }
+    for (String moduleName : model.getModules()) {
+      Path modulePom = resolvePom(pom.getParent(), moduleName);
+      if (Files.isRegularFile(modulePom)) {
+        loadModules(modulePom, readModel(modulePom), modules);
+      }
+    }
+  }
+
+  private static ReactorModule createModule(Path pom, Model model) {
+    Path basedir = pom.getParent();
+    String groupId = model.getGroupId() != null ? model.getGroupId() : model.getParent().getGroupId();
+    Build build = model.getBuild() != null ? model.getBuild() : new Build();
+
+    List<Path> sourceRoots = Collections.singletonList(resolve(basedir, build.getSourceDirectory(), "src/main/java"));
+    List<Path> resourceRoots = build.getResources().isEmpty()
+      ? Collections.singletonList(basedir.resolve("src/main/resources"))
+      : build.getResources().stream().map(Resource::getDirectory).map(directory -> resolve(basedir, directory, "src/main/resources")).collect(toList());
+    Path buildDirectory = resolve(basedir, build.getDirectory(), "target");
+    Path outputDirectory = isLiteral(build.getOutputDirectory()) ? resolve(basedir, build.getOutputDirectory(), "target/classes") : buildDirectory.resolve("classes");
+
+    Set<String> dependencies = model.getDependencies().stream()
+      .map(dependency -> interpolateGroupId(dependency.getGroupId(), groupId) + ":" + dependency.getArtifactId())
+      .collect(toSet());
+    return new ReactorModule(groupId, model.getArtifactId(), pom, sourceRoots, resourceRoots, outputDirectory, dependencies);
+  }
+
+  private static String interpolateGroupId(String dependencyGroupId, String projectGroupId) {
+    if ("${project.groupId}".equals(dependencyGroupId) || "${groupId}".equals(dependencyGroupId)) {
+      return projectGroupId;
+    }
+    return dependencyGroupId;
+  }
+
+  private static Path resolve(Path basedir, String directory, String defaultDirectory) {
+    return basedir.resolve(isLiteral(directory) ? directory : defaultDirectory).normalize();
+  }
+
+  // true if the value is present and doesn't need any interpolation
+  private static boolean isLiteral(String value) {
+    return value != null && !value.contains("${");
+  }
+
+  private static Path resolvePom(Path directory, String relativePath) {
+    Path path = directory.resolve(relativePath).normalize();
+    return Files.isDirectory(path) ? path.resolve(POM) : path;
+  }
+
+  private static Model readModel(Path pom) throws IOException, XmlPullParserException {
+    try (Reader reader = Files.newBufferedReader(pom, StandardCharsets.UTF_8)) {
+      return new MavenXpp3Reader().read(reader, false);
+    }
+  }
+}
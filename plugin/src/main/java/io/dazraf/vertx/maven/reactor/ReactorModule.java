@@ -0,0 +1,94 @@
+package io.dazraf.vertx.maven.reactor;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A module of a maven reactor, as declared in its pom on disk
+ */
+public class ReactorModule {
+  private final String groupId;
+  private final String artifactId;
+  private final Path basedir;
+  private final Path pomFile;
+  private final List<Path> sourceRoots;
+  private final List<Path> resourceRoots;
+  private final Path outputDirectory;
+  private final Set<String> dependencies;
+
+  ReactorModule(String groupId, String artifactId, Path pomFile, List<Path> sourceRoots, List<Path> resourceRoots,
+                Path outputDirectory, Set<String> dependencies) {
+    this.groupId = groupId;
+    this.artifactId = artifactId;
+    this.pomFile = pomFile;
+    this.basedir = pomFile.getParent();
+    this.sourceRoots = Collections.unmodifiableList(sourceRoots);
+    this.resourceRoots = Collections.unmodifiableList(resourceRoots);
+    this.outputDirectory = outputDirectory;
+    this.dependencies = Collections.unmodifiableSet(dependencies);
+  }
+
+  /**
+   * @return the module id in the form {@code groupId:artifactId}, as accepted by maven's {@code --projects} option
+   */
+  public String getId() {
+    return groupId + ":" + artifactId;
+  }
+
+  public String getArtifactId() {
+    return artifactId;
+  }
+
+  public Path getBasedir() {
+    return basedir;
+  }
+
+  public Path getPomFile() {
+    return pomFile;
+  }
+
+  public List<Path> getSourceRoots() {
+    return sourceRoots;
+  }
+
+  public List<Path> getResourceRoots() {
+    return resourceRoots;
+  }
+
+  public Path getOutputDirectory() {
+    return outputDirectory;
+  }
+
+  /**
+   * @return the ids of the dependencies of the module, in the form {@code groupId:artifactId}
+   */
+  Set<String> getDependencies() {
+    return dependencies;
+  }
+
+  /**
+   * @param path a file or directory
+   * @return true if the path is within the module's directory
+   */
+  public boolean contains(Path path) {
+    return path.startsWith(basedir);
+  }
+
+  /**
+   * @param classPathEntry an entry on a resolved class path
+   * @return true if the entry is an installed jar of this module, e.g. in the local repository
+   */
+  boolean isInstalledArtifact(String classPathEntry) {
+    String expectedDirectory = File.separator + groupId.replace('.', File.separatorChar) + File.separator + artifactId + File.separator;
+    String fileName = new File(classPathEntry).getName();
+    return classPathEntry.endsWith(".jar") && classPathEntry.contains(expectedDirectory) && fileName.startsWith(artifactId + "-");
+  }
+
+  @Override
+  public String toString() {
+    return getId();
+  }
+}
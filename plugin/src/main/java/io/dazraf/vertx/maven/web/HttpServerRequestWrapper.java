@@ -1,7 +1,9 @@
 package io.dazraf.vertx.maven.web;
 
+import io.vertx.core.Context;
 import io.vertx.core.Handler;
 import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.*;
 import io.vertx.core.net.NetSocket;
@@ -15,39 +17,58 @@ import java.util.function.Function;
 public class HttpServerRequestWrapper implements HttpServerRequest {
   private final HttpServerRequest wrapped;
   private final HttpServerResponse response;
+  private final Context context;
+  private volatile boolean paused;
 
   public HttpServerRequestWrapper(HttpServerRequest wrapped, Function<String, File> fileResolver) {
+    this(wrapped, fileResolver, null);
+  }
+
+  /**
+   * @param context the context that the handlers of the request are called on, if it isn't the one of the connection
+   */
+  public HttpServerRequestWrapper(HttpServerRequest wrapped, Function<String, File> fileResolver, Context context) {
     this.wrapped = wrapped;
     this.response = new InjectingHttpServerResponse(wrapped.response(), fileResolver);
+    this.context = context;
+  }
+
+  /**
+   * @return true if the handler of the request has paused it
+   */
+  public boolean isPaused() {
+    return paused;
   }
 
   @Override
   public HttpServerRequest exceptionHandler(Handler<Throwable> handler) {
-    wrapped.exceptionHandler(handler);
+    wrapped.exceptionHandler(onContext(handler));
     return this;
   }
 
   @Override
   public HttpServerRequest handler(Handler<Buffer> handler) {
-    wrapped.handler(handler);
+    wrapped.handler(onContext(handler));
     return this;
   }
 
   @Override
   public HttpServerRequest pause() {
+    paused = true;
     wrapped.pause();
     return this;
   }
 
   @Override
   public HttpServerRequest resume() {
+    paused = false;
     wrapped.resume();
     return this;
   }
 
   @Override
   public HttpServerRequest endHandler(Handler<Void> endHandler) {
-    wrapped.endHandler(endHandler);
+    wrapped.endHandler(onContext(endHandler));
     return this;
   }
 
@@ -128,7 +149,8 @@ public class HttpServerRequestWrapper implements HttpServerRequest {
 
   @Override
   public HttpServerRequest bodyHandler(Handler<Buffer> bodyHandler) {
-    return wrapped.bodyHandler(bodyHandler);
+    wrapped.bodyHandler(onContext(bodyHandler));
+    return this;
   }
 
   @Override
@@ -149,7 +171,8 @@ public class HttpServerRequestWrapper implements HttpServerRequest {
 
   @Override
   public HttpServerRequest uploadHandler(Handler<HttpServerFileUpload> uploadHandler) {
-    return wrapped.uploadHandler(uploadHandler);
+    wrapped.uploadHandler(onContext(uploadHandler));
+    return this;
   }
 
   @Override
@@ -171,4 +194,18 @@ public class HttpServerRequestWrapper implements HttpServerRequest {
   public boolean isEnded() {
     return  wrapped.isEnded();
   }
+
+  // the events of the request arrive on the context of the connection, and are passed on to that of the request
+  private <T> Handler<T> onContext(Handler<T> handler) {
+    if (handler == null || context == null) {
+      return handler;
+    }
+    return event -> {
+      if (Vertx.currentContext() == context) {
+        handler.handle(event);
+      } else {
+        context.runOnContext(v -> handler.handle(event));
+      }
+    };
+  }
 }
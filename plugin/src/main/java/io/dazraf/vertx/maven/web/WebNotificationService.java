@@ -9,6 +9,7 @@ import org.slf4j.LoggerFactory;
 
 public class WebNotificationService extends AbstractVerticle {
   public static final String TOPIC = "vertx.hot.status";
+  public static final String METRICS_ADDRESS = "vertx.hot.metrics";
   private static final Logger logger = LoggerFactory.getLogger(WebNotificationService.class);
   private final int notificationPort;
   private HttpServer httpServer;
@@ -31,6 +32,22 @@ public class WebNotificationService extends AbstractVerticle {
           websocketHandler.closeHandler((v) -> consumer.unregister());
         }
       )
+      .requestHandler(request -> {
+        if (!request.path().equals("/vertx/hot/metrics")) {
+          request.response().setStatusCode(404).end();
+          return;
+        }
+        vertx.eventBus().<JsonObject>send(METRICS_ADDRESS, null, reply -> {
+          if (reply.failed()) {
+            logger.error("error in fetching the metrics", reply.cause());
+            request.response().setStatusCode(500).end();
+            return;
+          }
+          request.response()
+            .putHeader("Content-Type", "application/json")
+            .end(reply.result().body().encodePrettily());
+        });
+      })
       .listen(notificationPort);
     logger.info("notification websocket started on: http://localhost:{}", notificationPort);
   }
@@ -9,10 +9,19 @@ import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpServer;
 import io.vertx.core.http.HttpServerOptions;
 import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
 import io.vertx.core.http.impl.HttpServerImpl;
 import io.vertx.ext.web.Router;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class acts as an interceptor for HTTP server activity with {@link Vertx}
@@ -23,12 +32,29 @@ import java.io.*;
  * 3. Redirect all http to {@link HttpServerRequestWrapper} - the entry point of the logic to inject a script tag into
  * any server html resources
  *
+ * It also swaps deployments without closing the listening socket. Each server belongs to the generation - the
+ * deployment, with its isolated class loader - that created it. Servers of a new generation share the port of the old
+ * one, and every request is dispatched to the handler of the live generation for its port, so that promoting a new
+ * generation switches the handler of all requests at once. A request accepted by a server of another generation is
+ * handed to the context of the live generation's server, so that its handler runs on that context's thread and with
+ * the generation's class loader, as it would if the live server had accepted it. The old generation can then be
+ * drained of the requests that it is still serving, and undeployed.
+ *
  * This class is in the {@code io.vertx.core.impl} package to gain access to the VertxImpl package level constructors
  *
  */
 public class VertxWrapper extends VertxImpl {
+  private static final Logger logger = LoggerFactory.getLogger(VertxWrapper.class);
   private static final String BASE_API_PATH = "\\/__vertx_hot\\/(.*)";
+  private static final long PLUGIN_GENERATION = 0;
+  private static final long DRAIN_POLL_MILLIS = 20;
+  private static final int PRUNE_THRESHOLD = 256;
   private final ClassLoader pluginClassloader = Thread.currentThread().getContextClassLoader();
+  private final Map<ClassLoader, Long> generations = Collections.synchronizedMap(new WeakHashMap<>());
+  private final Map<Integer, Map<Long, Target>> targetsByPort = new ConcurrentHashMap<>();
+  private final Map<Long, Set<HttpServerResponse>> inFlight = new ConcurrentHashMap<>();
+  private volatile long deployingGeneration = PLUGIN_GENERATION;
+  private volatile long liveGeneration = PLUGIN_GENERATION;
 
   public VertxWrapper(VertxOptions options) {
     super(options);
@@ -38,7 +64,111 @@ public class VertxWrapper extends VertxImpl {
     super(options, resultHandler);
   }
 
-  //
+  /**
+   * Start deploying a generation - the servers created by the class loaders first seen from now on belong to it
+   *
+   * @param generation the generation, unique to the deployment
+   */
+  public void beginGeneration(long generation) {
+    deployingGeneration = generation;
+  }
+
+  /**
+   * Dispatch all requests to the handlers of a deployed generation, on the ports that it listens on
+   *
+   * @param generation the generation that has been deployed
+   */
+  public void promote(long generation) {
+    liveGeneration = generation;
+    deployingGeneration = PLUGIN_GENERATION;
+  }
+
+  /**
+   * @param generation the generation that failed to deploy
+   */
+  public void discard(long generation) {
+    if (deployingGeneration == generation) {
+      deployingGeneration = PLUGIN_GENERATION;
+    }
+    inFlight.remove(generation);
+  }
+
+  /**
+   * @param generation a generation
+   * @return true if the requests are dispatched to the handlers of the generation
+   */
+  public boolean isLive(long generation) {
+    return liveGeneration == generation;
+  }
+
+  /**
+   * Wait for the requests being served by a generation to complete, before it is undeployed
+   *
+   * @param generation a generation that is no longer live
+   * @param timeoutMillis the longest to wait
+   * @return true if the generation has been drained, false if requests were still in flight after the timeout
+   */
+  public boolean drain(long generation, long timeoutMillis) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    Set<HttpServerResponse> responses = inFlight.getOrDefault(generation, Collections.emptySet());
+    try {
+      while (!prune(responses).isEmpty()) {
+        if (System.nanoTime() > deadline) {
+          logger.warn("{} request(s) still in flight after {}ms", responses.size(), timeoutMillis);
+          return false;
+        }
+        Thread.sleep(DRAIN_POLL_MILLIS);
+      }
+      return true;
+    } finally {
+      inFlight.remove(generation);
+    }
+  }
+
+  // the generation of the caller, by the class loader of its deployment
+  private long currentGeneration() {
+    ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    if (classLoader == pluginClassloader) {
+      return PLUGIN_GENERATION;
+    }
+    synchronized (generations) {
+      return generations.computeIfAbsent(classLoader,
+        key -> deployingGeneration != PLUGIN_GENERATION ? deployingGeneration : liveGeneration);
+    }
+  }
+
+  // dispatch to the live generation's server for the port, or to the server's own handler if there's none
+  private void dispatch(int port, long generation, Target own, HttpServerRequest request) {
+    long live = liveGeneration;
+    Map<Long, Target> targets = targetsByPort.get(port);
+    Target liveTarget = live != generation && targets != null ? targets.get(live) : null;
+    Target target = liveTarget != null ? liveTarget : own;
+    Set<HttpServerResponse> responses = inFlight.computeIfAbsent(liveTarget != null ? live : generation,
+      key -> ConcurrentHashMap.newKeySet());
+    if (responses.size() > PRUNE_THRESHOLD) {
+      prune(responses);
+    }
+    responses.add(request.response());
+    if (target.context == null || target.context == Vertx.currentContext()) {
+      target.handler.handle(new HttpServerRequestWrapper(request, this::resolveFile));
+      return;
+    }
+    // held back until the handler has been called on its own context, and has set up its handlers
+    HttpServerRequestWrapper wrapper = new HttpServerRequestWrapper(request, this::resolveFile, target.context);
+    request.pause();
+    target.context.runOnContext(v -> {
+      target.handler.handle(wrapper);
+      if (!wrapper.isPaused()) {
+        request.resume();
+      }
+    });
+  }
+
+  private static Set<HttpServerResponse> prune(Set<HttpServerResponse> responses) {
+    responses.removeIf(response -> response.ended() || response.closed());
+    return responses;
+  }
+
   /**
    * the http server interceptor has the following responsibilities
    * 1. any request to {@link VertxWrapper#BASE_API_PATH} is routed to a file server for late loaded artifacts
@@ -46,6 +176,10 @@ public class VertxWrapper extends VertxImpl {
    *    but passing through a {@link HttpServerRequestWrapper} to inject dependencies on late-loaded artifacts
    */
   private class HttpServerInterceptor extends HttpServerImpl {
+    private final long generation = currentGeneration();
+    private final ContextImpl context = getContext();
+    private Target target;
+    private volatile int port = -1;
 
     public HttpServerInterceptor(VertxInternal vertx, HttpServerOptions options) {
       super(vertx, options);
@@ -67,13 +201,41 @@ public class VertxWrapper extends VertxImpl {
           }
         }
       );
-      router.route("/*").handler(rc -> {
-        HttpServerRequest sr2 = new HttpServerRequestWrapper(rc.request(), VertxWrapper.this::resolveFile);
-        handler.handle(sr2);
-      });
+      Target target = new Target(handler, context);
+      router.route("/*").handler(rc -> dispatch(port, generation, target, rc.request()));
+      this.target = target;
       super.requestHandler(router::accept);
       return this;
     }
+
+    @Override
+    public synchronized HttpServer listen(int port, String host, Handler<AsyncResult<HttpServer>> listenHandler) {
+      if (target != null) {
+        this.port = port;
+        targetsByPort.computeIfAbsent(port, key -> new ConcurrentHashMap<>()).putIfAbsent(generation, target);
+      }
+      return super.listen(port, host, listenHandler);
+    }
+
+    @Override
+    public synchronized void close(Handler<AsyncResult<Void>> completionHandler) {
+      Map<Long, Target> targets = targetsByPort.get(port);
+      if (targets != null) {
+        targets.remove(generation, target);
+      }
+      super.close(completionHandler);
+    }
+  }
+
+  // the request handler of a server, and the context of the verticle that created the server
+  private static class Target {
+    private final Handler<HttpServerRequest> handler;
+    private final ContextImpl context;
+
+    Target(Handler<HttpServerRequest> handler, ContextImpl context) {
+      this.handler = handler;
+      this.context = context;
+    }
   }
 
   private byte[] readBytesFromStream(InputStream in) throws IOException {
@@ -11,6 +11,9 @@ function onWebSocketMessage(evt) {
   case "COMPILING":
     notifyCompiling(message);
     break;
+  case "COMPILE_DIAGNOSTIC":
+    notifyCompileDiagnostic(message);
+    break;
   case "DEPLOYING":
     notifyDeploying(message);
     break;
@@ -20,11 +23,17 @@ function onWebSocketMessage(evt) {
   case "FAILED":
     notifyFailed(message);
     break;
+  case "UNCHANGED":
+    notifyUnchanged(message);
+    break;
   case "STOPPED":
     notifyStopped(message);
     break;
+  case "BULK_CHANGE":
+    notifyBulkChange(message);
+    break;
   }
-  if (message.status == "DEPLOYED") {
+  if (message.status == "DEPLOYED" && !bulkChangeInProgress) {
     reload(message.url);
   }
 }
@@ -33,11 +42,21 @@ function onWebSocketClose() {
   setTimeout(start, 1000);
 }
 
+var compileDiagnostics = [];
+var bulkChangeInProgress = false;
+
 function notifyCompiling(message) {
+  compileDiagnostics = [];
   closeNotification();
   notify("Compiling");
 }
 
+function notifyCompileDiagnostic(message) {
+  compileDiagnostics.push(message.diagnostic);
+  notify("Compiling - " + compileDiagnostics.length + " error(s)");
+  renderDiagnostics(compileDiagnostics);
+}
+
 
 function notifyDeploying(message) {
   notify("Deploying...");
@@ -46,9 +65,30 @@ function notifyDeploying(message) {
 function notifyDeployed(message) {
   notify("Deployed");
 }
+function notifyUnchanged(message) {
+  notify("Unchanged");
+}
+
+function notifyBulkChange(message) {
+  bulkChangeInProgress = message.inProgress;
+  notify(message.inProgress ? "Bulk change in progress (" + message.files + " files)..." : "");
+}
+
 function notifyFailed(message) {
   notify("Compilation Failed");
-  document.body.innerHTML="<pre>"+message.cause+"</pre>"
+  if (message.diagnostics && message.diagnostics.length > 0) {
+    renderDiagnostics(message.diagnostics);
+  } else {
+    document.body.innerHTML="<pre>"+message.cause+"</pre>"
+  }
+}
+
+function renderDiagnostics(diagnostics) {
+  document.body.innerHTML="<pre>"+diagnostics.map(formatDiagnostic).join("\n\n")+"</pre>"
+}
+
+function formatDiagnostic(diagnostic) {
+  return diagnostic.severity + ": " + diagnostic.file + ":" + diagnostic.line + ":" + diagnostic.column + "\n  " + diagnostic.message;
 }
 
 function notify(message) {
@@ -0,0 +1,67 @@
+package io.dazraf.vertx.maven;
+
+import org.junit.Test;
+import rx.observers.TestSubscriber;
+import rx.schedulers.TestScheduler;
+import rx.subjects.PublishSubject;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveDebounceTest {
+
+  @Test
+  public void thatABurstIsEmittedOnceItHasBeenQuiet() {
+    TestScheduler scheduler = new TestScheduler();
+    AdaptiveDebounce<String> debounce = new AdaptiveDebounce<>(500, 1000, scheduler);
+    PublishSubject<String> events = PublishSubject.create();
+    TestSubscriber<List<String>> subscriber = new TestSubscriber<>();
+    events.lift(debounce).subscribe(subscriber);
+
+    events.onNext("a");
+    scheduler.advanceTimeBy(10, TimeUnit.MILLISECONDS);
+    events.onNext("b");
+    scheduler.advanceTimeBy(10, TimeUnit.MILLISECONDS);
+    events.onNext("a");
+    subscriber.assertReceivedOnNext(asList());
+
+    scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+    subscriber.assertReceivedOnNext(singletonList(asList("a", "b", "a")));
+    assertTrue(debounce.getLastDelayMillis() <= 120);
+    long window = debounce.getWindowMillis();
+    assertTrue(window < 100); // narrowed by the short gaps
+
+    scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+    events.onNext("c");
+    scheduler.advanceTimeBy(window, TimeUnit.MILLISECONDS);
+    subscriber.assertReceivedOnNext(asList(asList("a", "b", "a"), singletonList("c")));
+    assertEquals(window, debounce.getLastDelayMillis());
+  }
+
+  @Test
+  public void thatASteadyStreamOfEventsIsEmittedWithinTheMaximumLatency() {
+    TestScheduler scheduler = new TestScheduler();
+    AdaptiveDebounce<Integer> debounce = new AdaptiveDebounce<>(500, 1000, scheduler);
+    PublishSubject<Integer> events = PublishSubject.create();
+    TestSubscriber<List<Integer>> subscriber = new TestSubscriber<>();
+    events.lift(debounce).subscribe(subscriber);
+
+    for (int i = 0; i < 15; i++) {
+      events.onNext(i);
+      scheduler.advanceTimeBy(80, TimeUnit.MILLISECONDS);
+    }
+    assertEquals(1, subscriber.getOnNextEvents().size());
+    assertEquals(asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12), subscriber.getOnNextEvents().get(0));
+    assertEquals(1000, debounce.getLastDelayMillis());
+
+    events.onCompleted();
+    scheduler.triggerActions();
+    assertEquals(asList(13, 14), subscriber.getOnNextEvents().get(1));
+    subscriber.assertTerminalEvent();
+  }
+}
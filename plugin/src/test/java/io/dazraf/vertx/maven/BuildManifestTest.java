@@ -0,0 +1,66 @@
+package io.dazraf.vertx.maven;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashSet;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BuildManifestTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void thatOnlyChangedFilesAreReported() throws Exception {
+    Path root = folder.getRoot().toPath();
+    Path sources = root.resolve("src");
+    Path app = write(sources.resolve("App.java"), "class App {}");
+    Path other = write(sources.resolve("Other.java"), "class Other {}");
+    Path deleted = write(sources.resolve("Deleted.java"), "class Deleted {}");
+    Path outputs = root.resolve("target/classes");
+    write(outputs.resolve("App.class"), "compiled");
+    ContentDigests contentDigests = new ContentDigests();
+    contentDigests.commit(contentDigests.digest(singletonList(sources)).get());
+    Path manifestFile = root.resolve("target/vertx-hot/manifest");
+    BuildManifest.create(contentDigests.committed(), singletonList(outputs)).save(manifestFile);
+
+    // touched, but with the same content
+    Files.setLastModifiedTime(app, FileTime.fromMillis(0));
+    write(other, "class Other { }");
+    Files.delete(deleted);
+    Path added = write(sources.resolve("Added.java"), "class Added {}");
+
+    BuildManifest manifest = BuildManifest.load(manifestFile).get();
+    assertTrue(manifest.isOutputCurrent(singletonList(outputs)));
+    BuildManifest.Diff diff = manifest.diff(singletonList(sources));
+    assertEquals(new HashSet<>(asList(other, deleted, added)), new HashSet<>(diff.getChanged()));
+    assertEquals(contentDigests.committed().get(app), diff.getUnchanged().get(app));
+  }
+
+  @Test
+  public void thatChangedOutputIsDetected() throws Exception {
+    Path root = folder.getRoot().toPath();
+    Path outputs = root.resolve("target/classes");
+    write(outputs.resolve("App.class"), "compiled");
+    Path manifestFile = root.resolve("target/vertx-hot/manifest");
+    BuildManifest.create(new ContentDigests().committed(), singletonList(outputs)).save(manifestFile);
+
+    write(outputs.resolve("Other.class"), "compiled");
+    assertFalse(BuildManifest.load(manifestFile).get().isOutputCurrent(singletonList(outputs)));
+  }
+
+  private static Path write(Path path, String content) throws Exception {
+    Files.createDirectories(path.getParent());
+    return Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+  }
+}
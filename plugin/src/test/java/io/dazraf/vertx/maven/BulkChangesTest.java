@@ -0,0 +1,67 @@
+package io.dazraf.vertx.maven;
+
+import io.dazraf.vertx.maven.plugin.mojo.ExtraPath.VertxHotAction;
+import org.junit.Test;
+import rx.schedulers.TestScheduler;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BulkChangesTest {
+
+  @Test
+  public void thatAStormIsHeldBackUntilItHasSettled() {
+    TestScheduler scheduler = new TestScheduler();
+    AtomicInteger startedFiles = new AtomicInteger();
+    List<FileChange> settled = new ArrayList<>();
+    AtomicBoolean deployDeferred = new AtomicBoolean();
+    BulkChanges bulkChanges = new BulkChanges(10, 50, 2000, scheduler, startedFiles::set, (changes, deferred) -> {
+      settled.addAll(changes);
+      deployDeferred.set(deferred);
+    });
+
+    assertFalse(bulkChanges.offer(changes(0, 5)));
+    assertFalse(bulkChanges.deferDeploy());
+    assertTrue(bulkChanges.offer(changes(0, 20)));
+    assertEquals(20, startedFiles.get());
+    assertTrue(bulkChanges.deferDeploy());
+
+    scheduler.advanceTimeBy(1500, TimeUnit.MILLISECONDS);
+    assertTrue(bulkChanges.offer(changes(20, 1)));
+    scheduler.advanceTimeBy(1500, TimeUnit.MILLISECONDS);
+    assertTrue(settled.isEmpty());
+
+    scheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+    assertEquals(21, settled.size());
+    assertTrue(deployDeferred.get());
+    assertFalse(bulkChanges.offer(changes(0, 1)));
+  }
+
+  @Test
+  public void thatManyEventsWithinASecondAreAStorm() {
+    TestScheduler scheduler = new TestScheduler();
+    BulkChanges bulkChanges = new BulkChanges(10, 50, 2000, scheduler, files -> { }, (changes, deferred) -> { });
+
+    for (int i = 0; i < 5; i++) {
+      assertFalse(bulkChanges.offer(changes(0, 10)));
+      scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+    }
+    assertTrue(bulkChanges.offer(changes(0, 10)));
+  }
+
+  private static List<FileChange> changes(int first, int count) {
+    return IntStream.range(first, first + count)
+      .mapToObj(i -> new FileChange(Paths.get("/src/File" + i + ".java"), VertxHotAction.Recompile))
+      .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,145 @@
+package io.dazraf.vertx.maven;
+
+import io.dazraf.vertx.maven.plugin.mojo.ExtraPath.VertxHotAction;
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompileSchedulerTest {
+
+  @Test
+  public void thatARunningCompileIsCancelledAndRestartedWithTheUnionOfChanges() throws Exception {
+    Path first = Paths.get("/src/First.java");
+    Path second = Paths.get("/src/Second.java");
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch deployed = new CountDownLatch(1);
+    AtomicInteger deploys = new AtomicInteger();
+    List<List<Path>> compiles = Collections.synchronizedList(new ArrayList<>());
+
+    CompileScheduler scheduler = new CompileScheduler((changedPaths, otherAction) -> {
+      compiles.add(changedPaths);
+      if (compiles.size() == 1) {
+        started.countDown();
+        try {
+          Thread.sleep(TimeUnit.SECONDS.toMillis(30)); // a long build, which should be interrupted
+        } catch (InterruptedException e) {
+          return false;
+        }
+      }
+      return true;
+    }, () -> {
+      deploys.incrementAndGet();
+      deployed.countDown();
+    });
+
+    scheduler.schedule(singletonList(first));
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    scheduler.schedule(singletonList(second));
+    assertTrue(deployed.await(10, TimeUnit.SECONDS));
+    scheduler.close();
+
+    assertEquals(2, compiles.size());
+    assertEquals(new HashSet<>(asList(first, second)), new HashSet<>(compiles.get(1)));
+    assertEquals(1, deploys.get());
+    assertEquals(1, scheduler.getCancelledCount());
+  }
+
+  @Test
+  public void thatChangesAreMergedIntoAQueuedCompile() throws Exception {
+    Path first = Paths.get("/src/First.java");
+    Path second = Paths.get("/src/Second.java");
+    Path third = Paths.get("/src/Third.java");
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch deployed = new CountDownLatch(1);
+    AtomicInteger deploys = new AtomicInteger();
+    List<List<Path>> compiles = Collections.synchronizedList(new ArrayList<>());
+
+    CompileScheduler scheduler = new CompileScheduler((changedPaths, otherAction) -> {
+      compiles.add(changedPaths);
+      if (compiles.size() == 1) {
+        started.countDown();
+        awaitUninterruptibly(release); // a build that is slow to stop, so the next compile stays queued
+      }
+      return true;
+    }, () -> {
+      deploys.incrementAndGet();
+      deployed.countDown();
+    });
+
+    scheduler.schedule(singletonList(first));
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    scheduler.schedule(singletonList(second));
+    scheduler.schedule(singletonList(third));
+    release.countDown();
+    assertTrue(deployed.await(10, TimeUnit.SECONDS));
+    scheduler.close();
+
+    assertEquals(2, compiles.size());
+    assertEquals(new HashSet<>(asList(first, second, third)), new HashSet<>(compiles.get(1)));
+    assertEquals(1, deploys.get());
+    assertEquals(1, scheduler.getCancelledCount());
+    assertEquals(1, scheduler.getSupersededCount());
+  }
+
+  @Test
+  public void thatTheOtherActionOfACancelledCompileIsCarriedIntoTheNextCompile() throws Exception {
+    Path first = Paths.get("/src/First.java");
+    Path second = Paths.get("/src/Second.java");
+    Path third = Paths.get("/src/Third.java");
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch compiled = new CountDownLatch(3);
+    List<VertxHotAction> otherActions = Collections.synchronizedList(new ArrayList<>());
+
+    CompileScheduler scheduler = new CompileScheduler((changedPaths, otherAction) -> {
+      otherActions.add(otherAction);
+      if (otherActions.size() == 1) {
+        started.countDown();
+        try {
+          Thread.sleep(TimeUnit.SECONDS.toMillis(30)); // a long build, which should be interrupted
+        } catch (InterruptedException e) {
+          compiled.countDown();
+          return false;
+        }
+      }
+      compiled.countDown();
+      return false; // e.g. skipped, as nothing has changed
+    }, () -> {});
+
+    scheduler.schedule(singletonList(first), VertxHotAction.Redeploy);
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    scheduler.schedule(singletonList(second), VertxHotAction.Refresh);
+    while (compiled.getCount() > 1) {
+      Thread.sleep(10);
+    }
+    scheduler.schedule(singletonList(third));
+    assertTrue(compiled.await(10, TimeUnit.SECONDS));
+    scheduler.close();
+
+    assertEquals(asList(VertxHotAction.Redeploy, VertxHotAction.Redeploy, VertxHotAction.Nothing), otherActions);
+  }
+
+  private static void awaitUninterruptibly(CountDownLatch latch) {
+    while (true) {
+      try {
+        latch.await();
+        return;
+      } catch (InterruptedException e) {
+        // keep waiting
+      }
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package io.dazraf.vertx.maven;
 
+import io.dazraf.vertx.maven.compiler.CompileCancelledException;
 import io.dazraf.vertx.maven.compiler.CompileResult;
 import io.dazraf.vertx.maven.compiler.Compiler;
 import io.dazraf.vertx.maven.compiler.CompilerException;
@@ -12,15 +13,20 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
 import java.util.regex.Pattern;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class CompilerTest {
   private static final Logger LOGGER = LoggerFactory.getLogger(CompilerTest.class);
 
   @Test
-  public void testCompileExample1() throws CompilerException, MavenInvocationException, IOException {
+  public void testCompileExample1() throws CompilerException, CompileCancelledException, MavenInvocationException, IOException {
     File projectFile = new File("../example1/pom.xml").getAbsoluteFile();
     Compiler compiler = new Compiler();
     MavenProject project = new MavenProject();
@@ -36,4 +42,24 @@ public class CompilerTest {
 
     assertTrue(compileResult.getClassPath().contains(project.getBuild().getOutputDirectory()));
   }
+
+  @Test
+  public void testIncrementalCompile() throws CompilerException, CompileCancelledException, MavenInvocationException, IOException {
+    File projectFile = new File("src/test/testprojects/simple/pom.xml").getAbsoluteFile();
+    Compiler compiler = new Compiler(true);
+    MavenProject project = new MavenProject();
+    project.setFile(projectFile);
+    Path outputDirectory = projectFile.getParentFile().toPath().resolve("target/classes");
+    project.getBuild().setOutputDirectory(outputDirectory.toFile().getCanonicalPath());
+    Path source = projectFile.getParentFile().toPath().resolve("src/main/java/App.java");
+    project.addCompileSourceRoot(source.getParent().toString());
+
+    final CompileResult fullResult = compiler.compile(project, Collections.emptyList(), null);
+    Path classFile = outputDirectory.resolve("App.class");
+    Files.setLastModifiedTime(classFile, FileTime.fromMillis(0));
+
+    final CompileResult incrementalResult = compiler.compile(project, Collections.singletonList(source), fullResult);
+    assertEquals(fullResult.getClassPath(), incrementalResult.getClassPath());
+    assertTrue(Files.getLastModifiedTime(classFile).toMillis() > 0);
+  }
 }
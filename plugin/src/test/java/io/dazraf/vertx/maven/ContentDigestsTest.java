@@ -0,0 +1,57 @@
+package io.dazraf.vertx.maven;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ContentDigestsTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void thatIdenticalContentIsUnchanged() throws Exception {
+    Path root = folder.getRoot().toPath();
+    Path source = write(root.resolve("src/App.java"), "class App {}");
+    ContentDigests contentDigests = new ContentDigests();
+    contentDigests.commit(contentDigests.digest(singletonList(root)).get());
+
+    // re-saved with the same bytes
+    write(source, "class App {}");
+    assertTrue(contentDigests.isUnchanged(contentDigests.digest(singletonList(source)).get()));
+
+    write(source, "class App { }");
+    assertFalse(contentDigests.isUnchanged(contentDigests.digest(singletonList(source)).get()));
+  }
+
+  @Test
+  public void thatNewAndDeletedFilesAreChanges() throws Exception {
+    Path root = folder.getRoot().toPath();
+    Path source = write(root.resolve("src/App.java"), "class App {}");
+    ContentDigests contentDigests = new ContentDigests();
+    contentDigests.commit(contentDigests.digest(singletonList(root)).get());
+
+    Path added = write(root.resolve("src/Other.java"), "class Other {}");
+    assertFalse(contentDigests.isUnchanged(contentDigests.digest(singletonList(added)).get()));
+
+    Files.delete(source);
+    Map<Path, String> deleted = contentDigests.digest(singletonList(source)).get();
+    assertFalse(contentDigests.isUnchanged(deleted));
+    contentDigests.commit(deleted);
+    // a temporary file that came and went is not a change
+    assertTrue(contentDigests.isUnchanged(contentDigests.digest(singletonList(root.resolve("src/App.java~"))).get()));
+  }
+
+  private static Path write(Path path, String content) throws Exception {
+    Files.createDirectories(path.getParent());
+    return Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+  }
+}
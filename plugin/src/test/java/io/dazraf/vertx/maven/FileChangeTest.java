@@ -0,0 +1,32 @@
+package io.dazraf.vertx.maven;
+
+import io.dazraf.vertx.maven.plugin.mojo.ExtraPath.VertxHotAction;
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+public class FileChangeTest {
+  private final Path source = Paths.get("/src/main/java/App.java");
+  private final Path config = Paths.get("/src/main/resources/config.json");
+  private final Path page = Paths.get("/src/main/resources/web/index.html");
+
+  @Test
+  public void thatTheStrongestActionOfABurstIsTaken() {
+    List<FileChange> changes = asList(
+      new FileChange(page, VertxHotAction.Refresh),
+      new FileChange(config, VertxHotAction.Redeploy),
+      new FileChange(source, VertxHotAction.Recompile),
+      new FileChange(source, VertxHotAction.Recompile));
+
+    assertEquals(VertxHotAction.Recompile, FileChange.strongestAction(changes));
+    assertEquals(Collections.singletonList(source), FileChange.pathsFor(changes, VertxHotAction.Recompile));
+    assertEquals(VertxHotAction.Redeploy, FileChange.strongestAction(changes.subList(0, 2)));
+    assertEquals(VertxHotAction.Nothing, FileChange.strongestAction(Collections.emptyList()));
+  }
+}
@@ -2,26 +2,53 @@ package io.dazraf.vertx.maven;
 
 import io.dazraf.vertx.maven.HotDeploy.DeployStatus;
 import io.dazraf.vertx.maven.compiler.Compiler;
+import io.dazraf.vertx.maven.plugin.mojo.ExtraPath;
+import io.dazraf.vertx.maven.plugin.mojo.ExtraPath.VertxHotAction;
 import io.vertx.core.Vertx;
 import junit.framework.Assert;
 import org.apache.maven.model.Resource;
 import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
 
 public class HotDeployTest {
   private static final Logger LOGGER = LoggerFactory.getLogger(HotDeployTest.class);
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
 
   @Test
   public void testFQNDeployWithoutConfig() throws Exception {
@@ -54,6 +81,132 @@ public class HotDeployTest {
     hotDeployAndCheckService(port, parameters);
   }
 
+  @Test
+  public void testSwapDeployWithLiveHttpReload() throws Exception {
+    int port = 8181; // not shared with the other tests, whose deployments may still be shutting down
+    // a copy, as its source is changed by the test
+    Path testProject = copyTestProject(Paths.get("src/test/testprojects/simple"), folder.getRoot().toPath());
+    Files.write(testProject.resolve("src/main/resources/swap.json"), ("{\"port\": " + port + "}").getBytes(UTF_8));
+    MavenProject project = createMavenProject(testProject.toString());
+    project.addCompileSourceRoot(testProject.resolve("src/main/java").toString());
+
+    HotDeployParameters parameters = HotDeployParameters
+      .create()
+      .withProject(project)
+      .withVerticleReference("App")
+      .withConfigFileName("swap.json")
+      .withLiveHttpReload(true)
+      .withNotificationPort(9999)
+      .withSwapDeploy(true);
+
+    CountDownLatch stop = new CountDownLatch(1);
+    // a deploy is complete, and the previous one undeployed, once its metrics are sent
+    Semaphore deploys = new Semaphore(0);
+    AtomicReference<String> failure = new AtomicReference<>();
+    HotDeploy hotDeploy = new HotDeploy(parameters, () -> awaitLatch(stop), status -> {
+      DeployStatus deployStatus = DeployStatus.valueOf(status.getString("status"));
+      if (deployStatus == DeployStatus.METRICS) {
+        deploys.release();
+      } else if (deployStatus == DeployStatus.FAILED) {
+        failure.set(status.encodePrettily());
+        deploys.release();
+      }
+    });
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    Future<?> running = executor.submit(() -> {
+      hotDeploy.run();
+      return null;
+    });
+    try {
+      assertTrue(deploys.tryAcquire(60, TimeUnit.SECONDS));
+      assertNull(failure.get());
+      assertEquals("OK", get(port));
+
+      // keep requesting throughout the swap, over kept-alive connections to the first deployment's server
+      AtomicBoolean swapped = new AtomicBoolean();
+      AtomicInteger requests = new AtomicInteger();
+      List<String> failedRequests = new CopyOnWriteArrayList<>();
+      Thread client = new Thread(() -> {
+        while (!swapped.get()) {
+          try {
+            requests.incrementAndGet();
+            String body = get(port);
+            if (!"OK".equals(body) && !"OK2".equals(body)) {
+              failedRequests.add(body);
+            }
+          } catch (IOException e) {
+            failedRequests.add(e.toString());
+          }
+        }
+      });
+      client.start();
+      Path source = testProject.resolve("src/main/java/App.java");
+      Files.write(source, new String(Files.readAllBytes(source), UTF_8).replace("end(\"OK\")", "end(\"OK2\")").getBytes(UTF_8));
+
+      assertTrue(deploys.tryAcquire(60, TimeUnit.SECONDS));
+      swapped.set(true);
+      client.join();
+
+      assertNull(failure.get());
+      assertEquals(Collections.emptyList(), failedRequests);
+      assertTrue(requests.get() > 1);
+      assertEquals("OK2", get(port));
+    } finally {
+      stop.countDown();
+      running.get(30, TimeUnit.SECONDS);
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testRedeployWhenTheCompileOfAMixedBatchIsSkipped() throws Exception {
+    Path testProject = copyTestProject(Paths.get("src/test/testprojects/simple"), folder.getRoot().toPath());
+    Path extraFile = Files.write(Files.createDirectories(testProject.resolve("conf")).resolve("app.properties"),
+      "greeting=hello".getBytes(UTF_8));
+    MavenProject project = createMavenProject(testProject.toString());
+    project.addCompileSourceRoot(testProject.resolve("src/main/java").toString());
+
+    HotDeployParameters parameters = HotDeployParameters
+      .create()
+      .withProject(project)
+      .withVerticleReference("App")
+      .withLiveHttpReload(false)
+      .withExtraPaths(Collections.singletonList(new ExtraPath().withPath("conf").withAction(VertxHotAction.Redeploy)));
+
+    CountDownLatch stop = new CountDownLatch(1);
+    Semaphore outcomes = new Semaphore(0);
+    List<DeployStatus> statuses = new CopyOnWriteArrayList<>();
+    HotDeploy hotDeploy = new HotDeploy(parameters, () -> awaitLatch(stop), status -> {
+      DeployStatus deployStatus = DeployStatus.valueOf(status.getString("status"));
+      if (deployStatus == DeployStatus.METRICS || deployStatus == DeployStatus.UNCHANGED
+        || deployStatus == DeployStatus.FAILED) {
+        statuses.add(deployStatus);
+        outcomes.release();
+      }
+    });
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    Future<?> running = executor.submit(() -> {
+      hotDeploy.run();
+      return null;
+    });
+    try {
+      assertTrue(outcomes.tryAcquire(60, TimeUnit.SECONDS));
+      assertEquals(Collections.singletonList(DeployStatus.METRICS), statuses);
+
+      // a comment at the end of the source compiles to the same classes, but the extra path still needs a redeploy
+      Path source = testProject.resolve("src/main/java/App.java");
+      Files.write(source, "\n// unchanged bytecode\n".getBytes(UTF_8), StandardOpenOption.APPEND);
+      Files.write(extraFile, "greeting=hi".getBytes(UTF_8));
+
+      assertTrue(outcomes.tryAcquire(60, TimeUnit.SECONDS));
+      assertEquals(asList(DeployStatus.METRICS, DeployStatus.METRICS), statuses);
+    } finally {
+      stop.countDown();
+      running.get(30, TimeUnit.SECONDS);
+      executor.shutdown();
+    }
+  }
+
   @Test
   public void testServiceWithoutConfig() throws Exception {
     int port = 8080; // the default port assuming config hasn't loaded
@@ -131,6 +284,25 @@ public class HotDeployTest {
     };
   }
 
+  private static String get(int port) throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/").openConnection();
+    if (connection.getResponseCode() != 200) {
+      return "HTTP " + connection.getResponseCode();
+    }
+    try (InputStream body = connection.getInputStream()) {
+      return new Scanner(body, "UTF-8").useDelimiter("\\A").next();
+    }
+  }
+
+  private static Path copyTestProject(Path testProject, Path destination) throws IOException {
+    try (Stream<Path> files = Files.walk(testProject)) {
+      for (Path file : (Iterable<Path>) files.filter(path -> !path.startsWith(testProject.resolve("target")))::iterator) {
+        Files.copy(file, destination.resolve(testProject.relativize(file).toString()), StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+    return destination;
+  }
+
   private MavenProject createMavenProject(String projectRootPath) throws IOException {
     File projectFile = new File(projectRootPath + "/pom.xml").getAbsoluteFile();
     MavenProject project = new MavenProject();
@@ -3,8 +3,11 @@ package io.dazraf.vertx.maven;
 import io.dazraf.vertx.maven.plugin.mojo.ExtraPath;
 import org.apache.maven.model.Resource;
 import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
@@ -27,6 +30,9 @@ public class PathsSupportTest {
   private static final String RESOURCES_PATH = "src/test/resources";
   private static final String RESOURCES_PATH2 = "src/test/resources2";
 
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
   @Test
   public void thatFileClassificationsWork() {
     Path root = Paths.get(PROJECT_ROOT);
@@ -93,6 +99,61 @@ public class PathsSupportTest {
     paths.contains(resourcesFullPath.resolve(CONFIG_PATH2));
   }
 
+  @Test
+  public void thatChangedFilesAreClassifiedByTheStrongestActionOfTheirPaths() {
+    Path root = Paths.get(PROJECT_ROOT);
+    Resource resource = mock(Resource.class);
+    Path resourcesFullPath = root.resolve(RESOURCES_PATH);
+    when(resource.getDirectory()).thenReturn(resourcesFullPath.toString());
+
+    MavenProject project = mock(MavenProject.class);
+    when(project.getFile()).thenReturn(root.resolve(POM_XML_PATH).toFile());
+    when(project.getResources()).thenReturn(Collections.singletonList(resource));
+    when(project.getCompileSourceRoots()).thenReturn(Collections.singletonList(root.resolve("src/main/java").toString()));
+
+    HotDeployParameters hotDeployParameters = new HotDeployParameters()
+      .withProject(project)
+      .withLiveHttpReload(true)
+      .withConfigFileName(CONFIG_PATH)
+      .withWatchExcludes(Collections.singletonList("**/*.swp"))
+      .withExtraPaths(Collections.singletonList(
+        new ExtraPath().withPath(RELOAD_BROWSER_EXTRA_PATH).withAction(ExtraPath.VertxHotAction.Refresh)
+          .withIncludes(Collections.singletonList("**/*.html"))));
+
+    PathsSupport pathsSupport = new PathsSupport(hotDeployParameters);
+    assertEquals(ExtraPath.VertxHotAction.Recompile, pathsSupport.actionFor(root.resolve("src/main/java/a/App.java")));
+    assertEquals(ExtraPath.VertxHotAction.Recompile, pathsSupport.actionFor(root.resolve(POM_XML_PATH)));
+    assertEquals(ExtraPath.VertxHotAction.Redeploy, pathsSupport.actionFor(resourcesFullPath.resolve(CONFIG_PATH)));
+    assertEquals(ExtraPath.VertxHotAction.Refresh, pathsSupport.actionFor(resourcesFullPath.resolve("web/index.html")));
+    assertEquals(ExtraPath.VertxHotAction.Refresh, pathsSupport.actionFor(root.resolve(RELOAD_BROWSER_EXTRA_PATH).resolve("index.html")));
+    assertEquals(ExtraPath.VertxHotAction.Nothing, pathsSupport.actionFor(root.resolve(RELOAD_BROWSER_EXTRA_PATH).resolve("app.js")));
+    assertEquals(ExtraPath.VertxHotAction.Nothing, pathsSupport.actionFor(root.resolve("src/main/java/a/.App.java.swp")));
+    assertEquals(ExtraPath.VertxHotAction.Nothing, pathsSupport.actionFor(root.resolve("README.md")));
+  }
+
+  @Test
+  public void thatSnapshotJarsAndLinkedClassesAreWatchedOnTheClassPath() throws Exception {
+    Path root = folder.getRoot().toPath().toAbsolutePath();
+    Path projectClasses = Files.createDirectories(root.resolve("project/target/classes"));
+    Path linkedClasses = Files.createDirectories(root.resolve("library/target/classes"));
+    Path snapshot = write(root.resolve("m2/org/example/util/1.0-SNAPSHOT/util-1.0-SNAPSHOT.jar"));
+    Path release = write(root.resolve("m2/io/vertx/vertx-core/3.1.0/vertx-core-3.1.0.jar"));
+
+    MavenProject project = mock(MavenProject.class);
+    when(project.getFile()).thenReturn(root.resolve("project").resolve(POM_XML_PATH).toFile());
+    PathsSupport pathsSupport = new PathsSupport(new HotDeployParameters().withProject(project));
+
+    List<String> classPath = asList(projectClasses, linkedClasses, snapshot, release).stream()
+      .map(Path::toString)
+      .collect(Collectors.toList());
+    assertEquals(asList(linkedClasses, snapshot), pathsSupport.dependencyPathsToWatch(classPath));
+  }
+
+  private static Path write(Path path) throws Exception {
+    Files.createDirectories(path.getParent());
+    return Files.write(path, new byte[]{0});
+  }
+
   private final <T> Set<String> toSet(Path root, String... args) {
     return Arrays.stream(args).map(p -> root.resolve(p).toString()).collect(Collectors.toSet());
   }
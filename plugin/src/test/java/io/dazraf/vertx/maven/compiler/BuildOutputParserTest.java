@@ -0,0 +1,86 @@
+package io.dazraf.vertx.maven.compiler;
+
+import io.dazraf.vertx.maven.compiler.CompileDiagnostic.Severity;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BuildOutputParserTest {
+
+  @Test
+  public void thatDependenciesAreCollectedWhenResolving() {
+    BuildOutputParser parser = new BuildOutputParser(true);
+    parser.consumeLine("[INFO] --- maven-dependency-plugin:2.8:resolve (default-cli) @ simple ---");
+    parser.consumeLine("[INFO]    io.vertx:vertx-core:jar:3.1.0:compile:/repo/io/vertx/vertx-core/3.1.0/vertx-core-3.1.0.jar");
+    parser.consumeLine("[INFO]    io.netty:netty-common:jar:4.0.31.Final:compile:/repo/netty-common-4.0.31.Final.jar");
+    parser.consumeLine("[INFO] --- maven-compiler-plugin:3.2:compile (default-compile) @ simple ---");
+
+    assertEquals(asList("/repo/io/vertx/vertx-core/3.1.0/vertx-core-3.1.0.jar", "/repo/netty-common-4.0.31.Final.jar"), parser.getDependencies());
+    assertTrue(parser.getDiagnostics().isEmpty());
+  }
+
+  @Test
+  public void thatDependenciesAreIgnoredWhenNotResolving() {
+    BuildOutputParser parser = new BuildOutputParser(false);
+    parser.consumeLine("[INFO]    io.vertx:vertx-core:jar:3.1.0:compile:/repo/vertx-core-3.1.0.jar");
+    assertTrue(parser.getDependencies().isEmpty());
+  }
+
+  @Test
+  public void thatErrorsAreParsedAndDeduplicated() {
+    BuildOutputParser parser = new BuildOutputParser(false);
+    parser.consumeLine("[WARNING] /src/App.java:[3,8] [deprecation] foo() in Bar has been deprecated");
+    parser.consumeLine("[ERROR] /src/App.java:[12,5] cannot find symbol");
+    parser.consumeLine("  symbol:   variable x");
+    parser.consumeLine("[ERROR] Failed to execute goal org.apache.maven.plugins:maven-compiler-plugin:3.2:compile");
+    parser.consumeLine("[ERROR] /src/App.java:[12,5] cannot find symbol");
+    parser.consumeLine("[ERROR] C:\\src\\App.java:[1,2] class, interface, or enum expected");
+
+    List<CompileDiagnostic> diagnostics = new ArrayList<>(parser.getDiagnostics());
+    assertEquals(asList(
+      new CompileDiagnostic("/src/App.java", 12, 5, Severity.ERROR, "cannot find symbol"),
+      new CompileDiagnostic("C:\\src\\App.java", 1, 2, Severity.ERROR, "class, interface, or enum expected")
+    ), diagnostics);
+    assertEquals("[ERROR] /src/App.java:[12,5] cannot find symbol", diagnostics.get(0).toString());
+  }
+
+  @Test
+  public void thatMalformedPositionsAreIgnored() {
+    BuildOutputParser parser = new BuildOutputParser(false);
+    parser.consumeLine("[ERROR] /src/App.java:[12] missing column");
+    parser.consumeLine("[ERROR] /src/App.java:[,5] missing line");
+    parser.consumeLine("[ERROR] :[1,5] missing file");
+    assertTrue(parser.getDiagnostics().isEmpty());
+  }
+
+  @Test
+  public void thatOnlyTheTargetModuleDependenciesAreCollectedInAReactorBuild() {
+    BuildOutputParser parser = new BuildOutputParser(true, Optional.of("app"));
+    parser.consumeLine("[INFO] --- maven-dependency-plugin:2.8:resolve (default-cli) @ core ---");
+    parser.consumeLine("[INFO]    io.vertx:vertx-core:jar:3.1.0:compile:/repo/vertx-core-3.1.0.jar");
+    parser.consumeLine("[INFO] --- maven-dependency-plugin:2.8:resolve (default-cli) @ app ---");
+    parser.consumeLine("[INFO]    com.example:core:jar:1.0-SNAPSHOT:compile:/repo/com/example/core/1.0-SNAPSHOT/core-1.0-SNAPSHOT.jar");
+
+    assertEquals(singletonList("/repo/com/example/core/1.0-SNAPSHOT/core-1.0-SNAPSHOT.jar"), parser.getDependencies());
+  }
+
+  @Test
+  public void thatErrorsAreStreamedAsTheyAreParsed() {
+    List<CompileDiagnostic> streamed = new ArrayList<>();
+    BuildOutputParser parser = new BuildOutputParser(false, Optional.empty(), streamed::add);
+    parser.consumeLine("[WARNING] /src/App.java:[3,8] [deprecation] foo() in Bar has been deprecated");
+    parser.consumeLine("[ERROR] /src/App.java:[12,5] cannot find symbol");
+    assertEquals(singletonList(new CompileDiagnostic("/src/App.java", 12, 5, Severity.ERROR, "cannot find symbol")), streamed);
+
+    // maven repeats the errors in its summary, which shouldn't be streamed twice
+    parser.consumeLine("[ERROR] /src/App.java:[12,5] cannot find symbol");
+    assertEquals(1, streamed.size());
+  }
+}
@@ -0,0 +1,104 @@
+package io.dazraf.vertx.maven.compiler;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+public class ClassFileTest {
+  private Path sourceDirectory;
+  private Path outputDirectory;
+
+  @Before
+  public void setup() throws IOException {
+    Path root = Files.createTempDirectory("classfiletest");
+    sourceDirectory = Files.createDirectories(root.resolve("src/a"));
+    outputDirectory = Files.createDirectories(root.resolve("classes"));
+  }
+
+  @Test
+  public void thatReferencesAreReadFromTheConstantPool() throws IOException {
+    compile("Foo", "package a; public class Foo { public int value() { return 1; } }");
+    compile("Bar", "package a; public class Bar { java.util.List<Foo> foos; int sum(int x, Foo foo) { return foo.value(); } }");
+
+    ClassFile bar = ClassFile.read(outputDirectory.resolve("a/Bar.class"));
+    assertEquals("a.Bar", bar.getClassName());
+    assertEquals("Bar.java", bar.getSourceFile().get());
+    assertTrue(bar.getReferencedClasses().contains("a.Foo"));
+    assertTrue(bar.getReferencedClasses().contains("java.util.List"));
+    assertFalse(bar.getReferencedClasses().contains("a.Bar"));
+  }
+
+  @Test
+  public void thatAbiDigestIgnoresImplementationChanges() throws IOException {
+    ClassFile original = compile("Foo", "package a; public class Foo { public int value() { return 1; } }");
+    ClassFile bodyChanged = compile("Foo", "package a; public class Foo { public int value() { return 2; } private void helper() {} }");
+    ClassFile signatureChanged = compile("Foo", "package a; public class Foo { public long value() { return 2; } }");
+    ClassFile constantChanged = compile("Foo", "package a; public class Foo { public static final int MAX = 3; public long value() { return 2; } }");
+
+    assertEquals(original.getAbiDigest(), bodyChanged.getAbiDigest());
+    assertNotEquals(original.getAbiDigest(), signatureChanged.getAbiDigest());
+    assertNotEquals(signatureChanged.getConstantsDigest(), constantChanged.getConstantsDigest());
+  }
+
+  @Test
+  public void thatMaterialDigestIgnoresDebugInformation() throws IOException {
+    ClassFile original = compile("Foo", "package a; public class Foo { public int value() { int x = 1; return x; } }");
+    ClassFile linesMoved = compile("Foo", "package a;\n// a comment\npublic class Foo {\n\n  public int value() {\n    int x = 1;\n    return x;\n  }\n}");
+    ClassFile bodyChanged = compile("Foo", "package a; public class Foo { public int value() { int x = 2; return x; } }");
+
+    assertEquals(original.getMaterialDigest(), linesMoved.getMaterialDigest());
+    assertNotEquals(original.getMaterialDigest(), bodyChanged.getMaterialDigest());
+  }
+
+  @Test
+  public void thatIndexFindsDependentSources() throws IOException {
+    compile("Foo", "package a; public class Foo { }");
+    compile("Bar", "package a; public class Bar { Foo foo; }");
+    compile("Baz", "package a; public class Baz { }");
+
+    ClassDependencyIndex index = new ClassDependencyIndex();
+    index.rebuild(outputDirectory, Collections.singletonList(sourceDirectory.getParent()));
+    assertEquals(3, index.sourceCount());
+    assertEquals(Collections.singleton(sourceDirectory.resolve("Bar.java")), index.dependentSources(Collections.singleton("a.Foo")));
+
+    index.remove(sourceDirectory.resolve("Bar.java"));
+    assertTrue(index.dependentSources(Collections.singleton("a.Foo")).isEmpty());
+  }
+
+  @Test
+  public void thatIndexFindsTheDependentsOfSubtypes() throws IOException {
+    compile("Base", "package a; public class Base { public void run() { } }");
+    compile("Middle", "package a; public class Middle extends Base implements Runnable { }");
+    compile("Leaf", "package a; public class Leaf extends Middle { }");
+    compile("User", "package a; public class User { void use(Leaf leaf) { leaf.run(); } }");
+
+    assertEquals(new HashSet<>(asList("a.Base", "java.lang.Runnable")),
+      ClassFile.read(outputDirectory.resolve("a/Middle.class")).getSupertypes());
+
+    ClassDependencyIndex index = new ClassDependencyIndex();
+    index.rebuild(outputDirectory, Collections.singletonList(sourceDirectory.getParent()));
+    assertEquals(new HashSet<>(asList("a.Base", "a.Middle", "a.Leaf")), index.withSubtypes(Collections.singleton("a.Base")));
+    assertEquals(new HashSet<>(asList(sourceDirectory.resolve("Middle.java"), sourceDirectory.resolve("Leaf.java"),
+      sourceDirectory.resolve("User.java"))), index.dependentSources(index.withSubtypes(Collections.singleton("a.Base"))));
+  }
+
+  private ClassFile compile(String className, String source) throws IOException {
+    Path sourceFile = sourceDirectory.resolve(className + ".java");
+    Files.write(sourceFile, source.getBytes(StandardCharsets.UTF_8));
+    JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+    int result = javac.run(null, null, null, "-g", "-d", outputDirectory.toString(), "-classpath", outputDirectory.toString(), sourceFile.toString());
+    assertEquals(0, result);
+    return ClassFile.read(outputDirectory.resolve("a/" + className + ".class"));
+  }
+}
@@ -0,0 +1,91 @@
+package io.dazraf.vertx.maven.compiler;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompilationShardsTest {
+  private Path sourceDirectory;
+  private Path outputDirectory;
+
+  @Before
+  public void setup() throws IOException {
+    Path root = Files.createTempDirectory("compilationshardstest");
+    sourceDirectory = Files.createDirectories(root.resolve("src"));
+    outputDirectory = Files.createDirectories(root.resolve("classes"));
+  }
+
+  @Test
+  public void thatPackagesAreShardedIntoWavesAlongTheDependencyGraph() throws IOException {
+    // b and c depend on each other, a depends on b, and d is independent
+    Path c = write("c/C.java", "package c; public class C { b.B b; }");
+    Path b = write("b/B.java", "package b; public class B { c.C c; }");
+    Path a = write("a/A.java", "package a; public class A { b.B b; }");
+    Path d = write("d/D.java", "package d; public class D { }");
+    compile(a, b, c, d);
+
+    ClassDependencyIndex index = new ClassDependencyIndex();
+    index.rebuild(outputDirectory, Collections.singletonList(sourceDirectory));
+    List<List<Set<Path>>> waves = CompilationShards.plan(Arrays.asList(a, b, c, d), index, 4);
+
+    assertEquals(2, waves.size());
+    assertTrue(waves.get(0).contains(new HashSet<>(Arrays.asList(b, c))));
+    assertTrue(waves.get(0).contains(Collections.singleton(d)));
+    assertEquals(Collections.singletonList(Collections.singleton(a)), waves.get(1));
+  }
+
+  @Test
+  public void thatAWaveIsPackedIntoAtMostParallelismShards() throws IOException {
+    Path a = write("a/A.java", "package a; public class A { }");
+    Path b = write("b/B.java", "package b; public class B { }");
+    Path c = write("c/C.java", "package c; public class C { }");
+    compile(a, b, c);
+
+    ClassDependencyIndex index = new ClassDependencyIndex();
+    index.rebuild(outputDirectory, Collections.singletonList(sourceDirectory));
+    List<List<Set<Path>>> waves = CompilationShards.plan(Arrays.asList(a, b, c), index, 2);
+
+    assertEquals(1, waves.size());
+    assertEquals(2, waves.get(0).size());
+    assertEquals(3, waves.get(0).stream().mapToInt(Set::size).sum());
+  }
+
+  @Test
+  public void thatSourcesAreCompiledAsOneShardWhenSomeAreNotIndexed() throws IOException {
+    Path a = write("a/A.java", "package a; public class A { }");
+    Path b = write("b/B.java", "package b; public class B { }");
+    compile(a, b);
+    // a now refers to a new source, which the index knows nothing about
+    write("a/A.java", "package a; public class A { c.C c; }");
+    Path c = write("c/C.java", "package c; public class C { }");
+
+    ClassDependencyIndex index = new ClassDependencyIndex();
+    index.rebuild(outputDirectory, Collections.singletonList(sourceDirectory));
+    List<List<Set<Path>>> waves = CompilationShards.plan(Arrays.asList(a, b, c), index, 4);
+
+    assertEquals(Collections.singletonList(Collections.singletonList(new HashSet<>(Arrays.asList(a, b, c)))), waves);
+  }
+
+  private Path write(String relativePath, String source) throws IOException {
+    Path path = sourceDirectory.resolve(relativePath);
+    Files.createDirectories(path.getParent());
+    return Files.write(path, source.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private void compile(Path... sources) {
+    JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+    List<String> arguments = new ArrayList<>(Arrays.asList("-d", outputDirectory.toString()));
+    Arrays.stream(sources).map(Path::toString).forEach(arguments::add);
+    assertEquals(0, javac.run(null, null, null, arguments.toArray(new String[arguments.size()])));
+  }
+}
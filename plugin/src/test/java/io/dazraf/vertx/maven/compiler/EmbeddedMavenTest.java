@@ -0,0 +1,105 @@
+package io.dazraf.vertx.maven.compiler;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.invoker.DefaultInvocationRequest;
+import org.apache.maven.shared.invoker.InvocationOutputHandler;
+import org.apache.maven.shared.invoker.InvocationRequest;
+import org.apache.maven.shared.invoker.InvocationResult;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class EmbeddedMavenTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void thatABuildIsRunFromTheSessionRequest() throws Exception {
+    File pom = folder.newFile("pom.xml");
+    MavenExecutionRequest sessionRequest = new DefaultMavenExecutionRequest().setOffline(true);
+    sessionRequest.getUserProperties().setProperty("skipTests", "true");
+    AtomicReference<MavenExecutionRequest> executed = new AtomicReference<>();
+    EmbeddedMaven embeddedMaven = new EmbeddedMaven(request -> {
+      executed.set(request);
+      return new DefaultMavenExecutionResult().setTopologicallySortedProjects(Collections.emptyList());
+    }, sessionRequest);
+
+    InvocationResult result = embeddedMaven.execute(new DefaultInvocationRequest()
+      .setPomFile(pom)
+      .setGoals(Collections.singletonList("dependency:resolve compile"))
+      .setProjects(Collections.singletonList("core"))
+      .setAlsoMake(true)
+      .setThreads("2"));
+
+    assertEquals(0, result.getExitCode());
+    MavenExecutionRequest request = executed.get();
+    assertEquals(pom, request.getPom());
+    assertEquals(asList("dependency:resolve", "compile"), request.getGoals());
+    assertEquals(Collections.singletonList("core"), request.getSelectedProjects());
+    assertEquals(MavenExecutionRequest.REACTOR_MAKE_UPSTREAM, request.getMakeBehavior());
+    assertEquals(2, request.getDegreeOfConcurrency());
+    assertEquals("true", request.getUserProperties().getProperty("skipTests"));
+    assertEquals(true, request.isOffline());
+  }
+
+  @Test
+  public void thatTheResultsAreReportedAsMavenOutput() throws Exception {
+    File pom = folder.newFile("pom.xml");
+    File jar = folder.newFile("vertx-core-3.1.0.jar");
+    Artifact artifact = new DefaultArtifact("io.vertx", "vertx-core", "3.1.0", Artifact.SCOPE_COMPILE, "jar", null,
+      new DefaultArtifactHandler("jar"));
+    artifact.setFile(jar);
+    MavenProject project = new MavenProject();
+    project.setArtifactId("core");
+    project.setArtifacts(new LinkedHashSet<>(Collections.singletonList(artifact)));
+
+    BuildOutputParser parser = new BuildOutputParser(true, Optional.of("core"));
+    InvocationResult result = new EmbeddedMaven(
+      request -> new DefaultMavenExecutionResult().setTopologicallySortedProjects(Collections.singletonList(project)),
+      new DefaultMavenExecutionRequest()).execute(request(pom, parser::consumeLine));
+
+    assertEquals(0, result.getExitCode());
+    assertEquals(Collections.singletonList(jar.getAbsolutePath()), parser.getDependencies());
+  }
+
+  @Test
+  public void thatCompileErrorsAreReportedAsMavenOutput() throws Exception {
+    File pom = folder.newFile("pom.xml");
+    List<String> lines = new ArrayList<>();
+    InvocationResult result = new EmbeddedMaven(
+      request -> new DefaultMavenExecutionResult().addException(new MojoFailureException(this, "Compilation failure",
+        "/src/App.java:[12,5] cannot find symbol\n/src/App.java:[14,1] missing return statement")),
+      new DefaultMavenExecutionRequest()).execute(request(pom, lines::add));
+
+    assertEquals(1, result.getExitCode());
+    assertNull(result.getExecutionException());
+    assertEquals(asList("[ERROR] /src/App.java:[12,5] cannot find symbol",
+      "[ERROR] /src/App.java:[14,1] missing return statement"), lines);
+  }
+
+  private static InvocationRequest request(File pom, InvocationOutputHandler output) {
+    return new DefaultInvocationRequest()
+      .setPomFile(pom)
+      .setGoals(Collections.singletonList("compile"))
+      .setOutputHandler(output);
+  }
+}
@@ -0,0 +1,48 @@
+package io.dazraf.vertx.maven.compiler;
+
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GeneratedSourcesTest {
+  private final Path foo = Paths.get("/src/a/Foo.java");
+  private final Path bar = Paths.get("/src/a/Bar.java");
+  private final Path baz = Paths.get("/src/a/Baz.java");
+  private final Path fooProxy = Paths.get("/generated/a/FooProxy.java");
+  private final Path registry = Paths.get("/generated/a/Registry.java");
+
+  @Test
+  public void thatAggregatedFilesWidenTheCompileAndGeneratedFilesAreDropped() {
+    GeneratedSources generatedSources = new GeneratedSources();
+    Map<Path, Set<Path>> generated = new HashMap<>();
+    generated.put(fooProxy, Collections.singleton(foo));
+    generated.put(registry, new HashSet<>(asList(foo, bar)));
+    generatedSources.update(asList(foo, bar, baz), generated);
+
+    assertEquals(Collections.singleton(baz), generatedSources.expand(Collections.singleton(baz)));
+    assertEquals(new HashSet<>(asList(foo, bar)), generatedSources.expand(asList(bar, fooProxy, registry)));
+    assertTrue(generatedSources.isAggregating(Collections.singleton(bar)));
+    assertFalse(generatedSources.isAggregating(Collections.singleton(baz)));
+  }
+
+  @Test
+  public void thatFilesThatAreNoLongerGeneratedAreStale() {
+    GeneratedSources generatedSources = new GeneratedSources();
+    generatedSources.update(Collections.singleton(foo), Collections.singletonMap(fooProxy, Collections.singleton(foo)));
+
+    assertTrue(generatedSources.update(Collections.singleton(bar), Collections.emptyMap()).isEmpty());
+    assertEquals(Collections.singleton(fooProxy), generatedSources.update(Collections.singleton(foo), Collections.emptyMap()));
+    assertFalse(generatedSources.isTracked(fooProxy));
+  }
+}
@@ -0,0 +1,101 @@
+package io.dazraf.vertx.maven.compiler;
+
+import org.apache.maven.shared.invoker.DefaultInvocationRequest;
+import org.apache.maven.shared.invoker.InvocationRequest;
+import org.apache.maven.shared.invoker.InvocationResult;
+import org.codehaus.plexus.util.cli.CommandLineTimeOutException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MavenBuildWorkerTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+  private String mavenHome;
+
+  // a daemon build doesn't need a maven home, so run without one, whatever the environment
+  @Before
+  public void clearMavenHome() {
+    mavenHome = System.clearProperty("maven.home");
+  }
+
+  @After
+  public void restoreMavenHome() {
+    if (mavenHome != null) {
+      System.setProperty("maven.home", mavenHome);
+    }
+  }
+
+  @Test
+  public void thatTheDaemonCommandLineCarriesTheRequest() throws Exception {
+    File pom = folder.newFile("pom.xml");
+    Properties properties = new Properties();
+    properties.setProperty("outputAbsoluteArtifactFilename", "true");
+    InvocationRequest request = new DefaultInvocationRequest()
+      .setPomFile(pom)
+      .setGoals(Collections.singletonList("dependency:resolve compile"))
+      .setProjects(asList("core", "web"))
+      .setAlsoMake(true)
+      .setThreads("1C")
+      .setProperties(properties);
+
+    assertEquals(asList("/usr/bin/mvnd", "--batch-mode", "--file", pom.getAbsolutePath(), "--projects", "core,web",
+      "--also-make", "--threads", "1C", "-DoutputAbsoluteArtifactFilename=true", "-Dmvnd.rawStreams=true",
+      "dependency:resolve", "compile"),
+      MavenBuildWorker.commandLine(request, new File("/usr/bin/mvnd")));
+  }
+
+  @Test
+  public void thatACancelledDaemonBuildInterruptsTheDaemonClient() throws Exception {
+    Path root = folder.getRoot().toPath();
+    Path interrupted = root.resolve("interrupted");
+    // stands in for the mvnd client, which cancels the daemon's build on an interrupt
+    File client = Files.write(root.resolve("mvnd"), asList(
+      "#!/bin/sh",
+      "trap 'touch \"" + interrupted + "\"; exit 130' INT",
+      "echo started",
+      "while true; do sleep 0.1; done")).toFile();
+    assertTrue(client.setExecutable(true));
+    Files.write(root.resolve("pom.xml"), Collections.singletonList("<project/>"));
+
+    CountDownLatch started = new CountDownLatch(1);
+    InvocationRequest request = new DefaultInvocationRequest()
+      .setPomFile(root.resolve("pom.xml").toFile())
+      .setGoals(Collections.singletonList("compile"))
+      .setOutputHandler(line -> started.countDown());
+    MavenBuildWorker worker = new MavenBuildWorker(Optional.of(client.getPath()));
+    AtomicReference<InvocationResult> result = new AtomicReference<>();
+    Thread build = new Thread(() -> {
+      try {
+        result.set(worker.execute(request));
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    });
+    build.start();
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+
+    build.interrupt();
+    build.join(TimeUnit.SECONDS.toMillis(10));
+
+    assertTrue(Files.exists(interrupted));
+    assertTrue(result.get().getExecutionException() instanceof CommandLineTimeOutException);
+    assertEquals(-1, result.get().getExitCode());
+  }
+}
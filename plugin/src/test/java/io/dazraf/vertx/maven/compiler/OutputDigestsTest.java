@@ -0,0 +1,45 @@
+package io.dazraf.vertx.maven.compiler;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OutputDigestsTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void thatOutputIsComparedWithWhatWasLastDeployed() throws Exception {
+    Path classes = folder.newFolder("classes").toPath();
+    List<Path> directories = Collections.singletonList(classes);
+    Path resource = Files.write(classes.resolve("app.properties"), "version=1".getBytes());
+    OutputDigests outputDigests = new OutputDigests(false);
+
+    assertTrue(outputDigests.update(directories));
+    outputDigests.commit();
+    assertFalse(outputDigests.update(directories));
+
+    // compiled, but never deployed (e.g. the deploy failed) ...
+    write(resource, "version=2", 1);
+    assertTrue(outputDigests.update(directories));
+    // ... so the next compile of the same output must still be deployed
+    assertTrue(outputDigests.update(directories));
+    outputDigests.commit();
+    assertFalse(outputDigests.update(directories));
+  }
+
+  private static void write(Path file, String content, long secondsLater) throws Exception {
+    FileTime modified = Files.getLastModifiedTime(file);
+    Files.write(file, content.getBytes());
+    Files.setLastModifiedTime(file, FileTime.fromMillis(modified.toMillis() + secondsLater * 1000));
+  }
+}
@@ -0,0 +1,73 @@
+package io.dazraf.vertx.maven.compiler;
+
+import org.apache.maven.model.Resource;
+import org.apache.maven.project.MavenProject;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Properties;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+public class ResourceSyncTest {
+  private Path resourceDirectory;
+  private Path outputDirectory;
+  private MavenProject project;
+
+  @Before
+  public void setup() throws IOException {
+    Path root = Files.createTempDirectory("resourcesynctest");
+    resourceDirectory = Files.createDirectories(root.resolve("src/main/resources"));
+    outputDirectory = Files.createDirectories(root.resolve("target/classes"));
+    project = new MavenProject();
+    project.getBuild().setOutputDirectory(outputDirectory.toString());
+    project.getProperties().setProperty("greeting", "hello");
+    Resource resource = new Resource();
+    resource.setDirectory(resourceDirectory.toString());
+    resource.setFiltering(true);
+    resource.setTargetPath("web");
+    project.getResources().add(resource);
+  }
+
+  @Test
+  public void thatPropertiesAreFiltered() {
+    Properties properties = new Properties();
+    properties.setProperty("name", "vertx");
+    assertEquals("hello vertx, vertx! ${unknown} a@b.com", ResourceSync.filter("hello ${name}, @name@! ${unknown} a@b.com", properties));
+  }
+
+  @Test
+  public void thatChangedResourcesAreSyncedToTheOutputDirectory() throws Exception {
+    Path template = write("templates/index.html", "<h1>${greeting}</h1>");
+    Path image = write("images/logo.png", "${greeting}");
+    ResourceSync resourceSync = new ResourceSync(Collections.singletonList("**/*.proto"));
+
+    assertTrue(resourceSync.canSync(project, template));
+    assertFalse(resourceSync.canSync(project, resourceDirectory.resolve("model/message.proto")));
+    assertFalse(resourceSync.canSync(project, resourceDirectory.getParent().resolve("java/App.java")));
+
+    resourceSync.sync(project, asList(template, image));
+    assertEquals("<h1>hello</h1>", read(outputDirectory.resolve("web/templates/index.html")));
+    assertEquals("${greeting}", read(outputDirectory.resolve("web/images/logo.png")));
+
+    Files.delete(template);
+    resourceSync.sync(project, Collections.singletonList(template));
+    assertFalse(Files.exists(outputDirectory.resolve("web/templates/index.html")));
+  }
+
+  private Path write(String relativePath, String content) throws IOException {
+    Path path = resourceDirectory.resolve(relativePath);
+    Files.createDirectories(path.getParent());
+    return Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String read(Path path) throws IOException {
+    return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+  }
+}
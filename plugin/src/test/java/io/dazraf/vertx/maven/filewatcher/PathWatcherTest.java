@@ -0,0 +1,135 @@
+package io.dazraf.vertx.maven.filewatcher;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import rx.Subscription;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PathWatcherTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void thatFilesInNewDirectoriesAreReportedWithAbsolutePaths() throws Exception {
+    Path root = folder.getRoot().toPath().toAbsolutePath();
+    BlockingQueue<Path> events = new LinkedBlockingQueue<>();
+    try (PathWatcher pathWatcher = new PathWatcher()) {
+      Subscription subscription = pathWatcher.watch(root).subscribe(events::add);
+      Path source = root.resolve("a/b/App.java");
+      Files.createDirectories(source.getParent());
+      Files.write(source, "class App {}".getBytes(StandardCharsets.UTF_8));
+
+      assertEquals(source, awaitEvent(events, source));
+      subscription.unsubscribe();
+    }
+  }
+
+  @Test
+  public void thatOnlyTheWatchedFileOfADirectoryIsReported() throws Exception {
+    Path root = folder.getRoot().toPath().toAbsolutePath();
+    Path pom = Files.write(root.resolve("pom.xml"), "<project/>".getBytes(StandardCharsets.UTF_8));
+    BlockingQueue<Path> events = new LinkedBlockingQueue<>();
+    try (PathWatcher pathWatcher = new PathWatcher()) {
+      pathWatcher.watch(pom).subscribe(events::add);
+      Files.write(root.resolve("other.txt"), "other".getBytes(StandardCharsets.UTF_8));
+      Files.write(pom, "<project></project>".getBytes(StandardCharsets.UTF_8));
+
+      assertEquals(pom, events.poll(30, TimeUnit.SECONDS));
+      assertTrue(events.stream().allMatch(pom::equals));
+    }
+  }
+
+  @Test
+  public void thatExcludedDirectoriesAreNotWatched() throws Exception {
+    Path root = folder.getRoot().toPath().toAbsolutePath();
+    Files.createDirectories(root.resolve("node_modules/left-pad/lib"));
+    Files.createDirectories(root.resolve("src"));
+    BlockingQueue<Path> events = new LinkedBlockingQueue<>();
+    try (PathWatcher pathWatcher = new PathWatcher()) {
+      WatchFilter filter = new WatchFilter(singletonList("**/*.js"), singletonList("**/node_modules/**"));
+      pathWatcher.watch(root, filter).subscribe(events::add);
+      assertEquals(2, pathWatcher.getWatchedDirectoryCount());
+
+      Files.write(root.resolve("node_modules/left-pad/index.js"), "pad".getBytes(StandardCharsets.UTF_8));
+      Files.write(root.resolve("src/app.css"), "css".getBytes(StandardCharsets.UTF_8));
+      Path script = Files.write(root.resolve("src/app.js"), "app".getBytes(StandardCharsets.UTF_8));
+
+      assertEquals(script, events.poll(30, TimeUnit.SECONDS));
+      assertTrue(events.stream().allMatch(script::equals));
+    }
+  }
+
+  @Test
+  public void thatASaveIsReportedOnceAndATouchIsNotReported() throws Exception {
+    Path root = folder.getRoot().toPath().toAbsolutePath();
+    Path source = Files.write(root.resolve("App.java"), "class App {}".getBytes(StandardCharsets.UTF_8));
+    BlockingQueue<Path> events = new LinkedBlockingQueue<>();
+    try (PathWatcher pathWatcher = new PathWatcher()) {
+      pathWatcher.watch(root).subscribe(events::add);
+      Path temporary = Files.write(root.resolve("App.java.tmp"), "class App { }".getBytes(StandardCharsets.UTF_8));
+      Files.move(temporary, source, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      assertEquals(source, events.poll(30, TimeUnit.SECONDS));
+      assertNull(events.poll(1, TimeUnit.SECONDS));
+
+      // the content was digested on its first event, so now a touch or an identical save can be told apart
+      Files.setLastModifiedTime(source, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+      Files.write(source, "class App { }".getBytes(StandardCharsets.UTF_8));
+      assertNull(events.poll(1, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  public void thatTheProbeFileIsReceivedAndRemoved() throws Exception {
+    Path probeDirectory = folder.getRoot().toPath().resolve("target/vertx-hot");
+    try (PathWatcher pathWatcher = new PathWatcher()) {
+      assertTrue(pathWatcher.receivesEvents(probeDirectory, 30, TimeUnit.SECONDS));
+      assertEquals(0, probeDirectory.toFile().list().length);
+      assertEquals(0, pathWatcher.getWatchedDirectoryCount());
+    }
+  }
+
+  @Test
+  public void thatOnlyTheDirectoriesOfAnUnsubscribedWatchAreNoLongerWatched() throws Exception {
+    Path root = folder.getRoot().toPath().toAbsolutePath();
+    Files.createDirectories(root.resolve("src/main/java"));
+    Path pom = Files.write(root.resolve("pom.xml"), "<project/>".getBytes(StandardCharsets.UTF_8));
+    BlockingQueue<Path> events = new LinkedBlockingQueue<>();
+    try (PathWatcher pathWatcher = new PathWatcher()) {
+      Subscription pomSubscription = pathWatcher.watch(pom).subscribe(events::add);
+      Subscription sourceSubscription = pathWatcher.watch(root.resolve("src")).subscribe(events::add);
+      assertEquals(4, pathWatcher.getWatchedDirectoryCount());
+
+      sourceSubscription.unsubscribe();
+      assertEquals(1, pathWatcher.getWatchedDirectoryCount());
+      Files.write(pom, "<project></project>".getBytes(StandardCharsets.UTF_8));
+      assertEquals(pom, events.poll(30, TimeUnit.SECONDS));
+
+      pomSubscription.unsubscribe();
+      assertEquals(0, pathWatcher.getWatchedDirectoryCount());
+    }
+  }
+
+  // waits for an event for the given path, skipping any others (e.g. for the parent directories), or times out with null
+  private static Path awaitEvent(BlockingQueue<Path> events, Path expected) throws InterruptedException {
+    while (true) {
+      Path event = events.poll(30, TimeUnit.SECONDS);
+      if (event == null || event.equals(expected)) {
+        return event;
+      }
+    }
+  }
+}
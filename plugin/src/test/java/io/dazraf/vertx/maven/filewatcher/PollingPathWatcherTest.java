@@ -0,0 +1,51 @@
+package io.dazraf.vertx.maven.filewatcher;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class PollingPathWatcherTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void thatCreatedModifiedAndDeletedFilesAreReported() throws Exception {
+    Path root = folder.getRoot().toPath().toAbsolutePath();
+    Path source = write(root.resolve("App.java"), "class App {}");
+    write(root.resolve("node_modules/left-pad/index.js"), "pad");
+    BlockingQueue<Path> events = new LinkedBlockingQueue<>();
+    try (PollingPathWatcher pathWatcher = new PollingPathWatcher(50)) {
+      pathWatcher.watch(root, new WatchFilter(singletonList("**/*.java"), singletonList("**/node_modules/**"))).subscribe(events::add);
+      assertEquals(1, pathWatcher.getWatchedDirectoryCount());
+
+      write(source, "class App { }");
+      assertEquals(source, events.poll(30, TimeUnit.SECONDS));
+
+      Files.setLastModifiedTime(source, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+      write(root.resolve("node_modules/left-pad/index.js"), "padded");
+      assertNull(events.poll(500, TimeUnit.MILLISECONDS));
+
+      Path added = write(root.resolve("a/b/Added.java"), "class Added {}");
+      assertEquals(added, events.poll(30, TimeUnit.SECONDS));
+      Files.delete(source);
+      assertEquals(source, events.poll(30, TimeUnit.SECONDS));
+    }
+  }
+
+  private static Path write(Path path, String content) throws Exception {
+    Files.createDirectories(path.getParent());
+    return Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+  }
+}
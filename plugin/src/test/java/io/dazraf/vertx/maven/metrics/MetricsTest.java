@@ -0,0 +1,36 @@
+package io.dazraf.vertx.maven.metrics;
+
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class MetricsTest {
+
+  @Test
+  public void thatCountersHistogramsAndGaugesAreSnapshotByName() {
+    Metrics metrics = new Metrics();
+    AtomicInteger gauge = new AtomicInteger(3);
+    metrics.counter("events").add(5);
+    metrics.counter("events").increment();
+    metrics.gauge("directories", gauge::get);
+    for (int i = 1; i <= 100; i++) {
+      metrics.histogram("latency").record(i);
+    }
+    assertSame(metrics.counter("events"), metrics.counter("events"));
+
+    gauge.set(4);
+    JsonObject snapshot = metrics.snapshot();
+    assertEquals(6L, (long) snapshot.getJsonObject("counters").getJsonObject("events").getLong("total"));
+    assertEquals(4, (int) snapshot.getJsonObject("gauges").getInteger("directories"));
+    JsonObject latency = snapshot.getJsonObject("histograms").getJsonObject("latency");
+    assertEquals(100L, (long) latency.getLong("count"));
+    assertEquals(50.5, latency.getDouble("mean"), 0.001);
+    assertEquals(100L, (long) latency.getLong("max"));
+    assertEquals(50L, (long) latency.getLong("p50"));
+    assertEquals(100L, (long) latency.getLong("p95"));
+  }
+}
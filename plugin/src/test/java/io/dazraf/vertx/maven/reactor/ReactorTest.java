@@ -0,0 +1,90 @@
+package io.dazraf.vertx.maven.reactor;
+
+import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReactorTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void thatTheReactorOfAModuleIsDiscovered() throws IOException {
+    Path root = createReactor();
+    Reactor reactor = Reactor.discover(project(root.resolve("app/pom.xml"))).get();
+
+    assertEquals(root.resolve("pom.xml"), reactor.getRootPom());
+    assertEquals("com.example:app", reactor.getTarget().getId());
+    assertEquals(singletonList("com.example:core"), reactor.getUpstreamModules().stream().map(ReactorModule::getId).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void thatTheBuildSetIncludesTheModulesDownstreamOfAChange() throws IOException {
+    Path root = createReactor();
+    Reactor reactor = Reactor.discover(project(root.resolve("app/pom.xml"))).get();
+
+    ReactorModule core = reactor.moduleOf(root.resolve("core/src/main/java/Core.java")).get();
+    assertEquals(asList("com.example:core", "com.example:app"), reactor.buildSet(singletonList(core)));
+    assertFalse(reactor.moduleOf(root.resolve("other/src/main/java/Other.java")).isPresent());
+  }
+
+  @Test
+  public void thatInstalledArtifactsAreReplacedWithOutputDirectories() throws IOException {
+    Path root = createReactor();
+    Reactor reactor = Reactor.discover(project(root.resolve("app/pom.xml"))).get();
+
+    assertEquals(asList(root.resolve("core/target/classes").toString(), "/repo/io/vertx/vertx-core/3.1.0/vertx-core-3.1.0.jar"),
+      reactor.replaceInstalledArtifacts(asList(
+        "/repo/com/example/core/1.0-SNAPSHOT/core-1.0-SNAPSHOT.jar",
+        "/repo/io/vertx/vertx-core/3.1.0/vertx-core-3.1.0.jar")));
+  }
+
+  @Test
+  public void thatAModuleWithoutReactorDependenciesHasNoReactor() throws IOException {
+    Path root = createReactor();
+    assertFalse(Reactor.discover(project(root.resolve("core/pom.xml"))).isPresent());
+    assertTrue(Reactor.discover(project(root.resolve("app/pom.xml"))).isPresent());
+  }
+
+  private Path createReactor() throws IOException {
+    Path root = folder.getRoot().toPath().toRealPath();
+    write(root.resolve("pom.xml"), "<project><modelVersion>4.0.0</modelVersion>" +
+      "<groupId>com.example</groupId><artifactId>parent</artifactId><version>1.0-SNAPSHOT</version><packaging>pom</packaging>" +
+      "<modules><module>core</module><module>app</module><module>other</module></modules></project>");
+    write(root.resolve("core/pom.xml"), module("core", ""));
+    write(root.resolve("app/pom.xml"), module("app",
+      "<dependency><groupId>${project.groupId}</groupId><artifactId>core</artifactId><version>${project.version}</version></dependency>"));
+    write(root.resolve("other/pom.xml"), module("other", ""));
+    return root;
+  }
+
+  private static String module(String artifactId, String dependencies) {
+    return "<project><modelVersion>4.0.0</modelVersion>" +
+      "<parent><groupId>com.example</groupId><artifactId>parent</artifactId><version>1.0-SNAPSHOT</version></parent>" +
+      "<artifactId>" + artifactId + "</artifactId><dependencies>" + dependencies + "</dependencies></project>";
+  }
+
+  private static void write(Path path, String content) throws IOException {
+    Files.createDirectories(path.getParent());
+    Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static MavenProject project(Path pom) {
+    MavenProject project = new MavenProject();
+    project.setFile(pom.toFile());
+    return project;
+  }
+}